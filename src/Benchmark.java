@@ -0,0 +1,522 @@
+import java.lang.management.ManagementFactory;
+
+/****************************************************************
+ * Benchmark
+ *
+ * Description: Times the hot paths of the card games without clicking
+ *              through the GUI, and counts the bytes each call allocates.
+ *              Cases of the turn loop have an allocation budget, the run
+ *              exits with status 1 if one of them goes over it or if the
+ *              shuffle is skewed.
+ * Usage:       java Benchmark [name filter]
+ *              Run from the project folder so src/images can be found.
+ *****************************************************************/
+
+public class Benchmark
+{
+   private static final int WARMUP_ROUNDS = 5;
+   private static final int MEASURE_ROUNDS = 10;
+   private static final long ROUND_NANOS = 100_000_000L; // 0.1 second
+
+   // budget of the cases that are not checked
+   private static final long NO_BUDGET = -1;
+
+   // every case adds its result here so the JIT cannot drop the work
+   static long sink;
+
+   // null if the JVM cannot count the bytes a thread allocates
+   private static final com.sun.management.ThreadMXBean THREADS =
+      allocationCounter();
+   private static boolean overBudget = false;
+   private static boolean skewed = false;
+
+   public static void main(String[] args)
+   {
+      String filter = args.length > 0 ? args[0] : "";
+
+      cardBenchmarks(filter);
+      deckBenchmarks(filter);
+      handBenchmarks(filter);
+      initGameBenchmarks(filter);
+      buildBenchmarks(filter);
+      playerBenchmarks(filter);
+      lowCardBenchmarks(filter);
+      shuffleFairness(filter);
+
+      System.out.println("sink " + sink);
+      if (overBudget)
+         System.out.println("some cases allocate more than their budget");
+      if (skewed)
+         System.out.println("the shuffle is skewed");
+      if (overBudget || skewed)
+         System.exit(1);
+   }
+
+   /**
+    * Card lookups used by every turn
+    */
+   private static void cardBenchmarks(String filter)
+   {
+      final Card[] allCards = new Card[Card.NUM_CARD_CODES];
+      for (int i = 0; i < allCards.length; i++)
+         allCards[i] = Card.fromInt(i);
+
+      run(filter, "card.valueAsInt x56", () ->
+      {
+         for (Card card : allCards)
+            sink += Card.valueAsInt(card);
+      });
+
+      run(filter, "card.cardAsInt x56", () ->
+      {
+         for (Card card : allCards)
+            sink += Card.cardAsInt(card);
+      });
+
+      final Card[] hand = new Card[7];
+      run(filter, "card.arraySort 7 cards", () ->
+      {
+         for (int i = 0; i < hand.length; i++)
+            hand[i] = allCards[(int) ((sink + i * 37) % 52)];
+         Card.arraySort(hand, hand.length);
+         sink += Card.cardAsInt(hand[0]);
+      });
+   }
+
+   /**
+    * Shuffling decks of 1 to 6 packs, and a fresh deal of a few cards with
+    * a full shuffle versus a lazy one
+    */
+   private static void deckBenchmarks(String filter)
+   {
+      for (int packs = 1; packs <= 6; packs++)
+      {
+         final Deck deck = new Deck(packs);
+         run(filter, "deck.shuffle " + packs + " packs", () ->
+         {
+            deck.shuffle();
+            sink += Card.cardAsInt(deck.inspectCard(0));
+         });
+      }
+
+      for (int packs = 1; packs <= 6; packs++)
+      {
+         final int numPacks = packs;
+         final Deck deck = new Deck(packs);
+         run(filter, "deck.init " + packs + " packs", () ->
+         {
+            deck.init(numPacks);
+            sink += deck.getNumCards();
+         });
+      }
+
+      for (int packs = 1; packs <= 6; packs += 5)
+      {
+         final int numPacks = packs;
+         final Deck deck = new Deck(packs);
+         deck.setLazyShuffle(true);
+         runWithBudget(filter, "deck.dealCard all " + packs + " packs", 0,
+            () ->
+            {
+               deck.init(numPacks);
+               deck.shuffle();
+               while (deck.getNumCards() > 0)
+                  sink += Card.cardAsInt(deck.dealCard());
+            });
+
+         for (int lazy = 0; lazy <= 1; lazy++)
+         {
+            final Deck lazyDeck = new Deck(packs);
+            lazyDeck.setLazyShuffle(lazy == 1);
+            run(filter, "deck.deal 10 of " + packs + " packs "
+               + (lazy == 1 ? "lazy" : "eager"), () ->
+               {
+                  lazyDeck.init(numPacks);
+                  lazyDeck.shuffle();
+                  for (int i = 0; i < 10; i++)
+                     sink += Card.cardAsInt(lazyDeck.dealCard());
+               });
+         }
+      }
+   }
+
+   /**
+    * Playing a card out of the middle of a hand and drawing a new one, for
+    * a normal hand and for a 6-pack size hand
+    */
+   private static void handBenchmarks(String filter)
+   {
+      for (int size = 7; size <= 300; size += 293)
+      {
+         final Hand hand = new Hand();
+         for (int i = 0; i < size; i++)
+            hand.takeCard(Card.fromInt(i % 52));
+         final int middle = size / 2;
+
+         runWithBudget(filter, "hand.play+take " + size + " cards ordered", 0,
+            () ->
+         {
+            hand.takeCard(hand.playCard(middle));
+            sink += hand.getNumCards();
+         });
+
+         runWithBudget(filter, "hand.play+take " + size + " cards swap", 0,
+            () ->
+         {
+            hand.takeCard(hand.playCardBySwap(middle));
+            sink += hand.getNumCards();
+         });
+         run(filter, "hand.sort " + size + " cards", () ->
+         {
+            hand.takeCard(hand.playCard(0)); // last card now out of order
+            hand.sort();
+            sink += Card.cardAsInt(hand.inspectCard(0));
+         });
+      }
+
+      final Deck deck = new Deck(6);
+      run(filter, "deck.sort 6 packs", () ->
+      {
+         deck.shuffle();
+         deck.sort();
+         sink += Card.cardAsInt(deck.inspectCard(0));
+      });
+   }
+
+   /**
+    * BuildModel.initGame (restock, remove unused cards, add jokers, shuffle)
+    * for every pack and joker count the model accepts, with no, some and the
+    * most unused cards
+    */
+   private static void initGameBenchmarks(String filter)
+   {
+      final int[] unusedCounts =
+      { 0, 13, 50 };
+      Card[] unusedCards = new Card[50];
+      for (int i = 0; i < unusedCards.length; i++)
+         unusedCards[i] = Card.fromInt(i);
+
+      for (int packs = 1; packs <= 6; packs++)
+         for (int jokers = 0; jokers <= 4; jokers++)
+            for (int unused : unusedCounts)
+            {
+               final BuildModel model = new BuildModel(packs, jokers, unused,
+                  unusedCards, 2, 7);
+               run(filter, "build.initGame " + packs + "p " + jokers + "j "
+                  + unused + "u", 3, () ->
+                  {
+                     model.initGame();
+                     sink += model.getNumCardsRemainingInDeck();
+                  });
+            }
+   }
+
+   /**
+    * Checks that shuffle is fair: for the first, middle and last card dealt
+    * from decks of 1 to 6 packs, counts which card it is over many shuffles
+    * and runs a chi-square test against the uniform expectation. Both the
+    * full and the lazy shuffle are checked, any skewed deal fails the run.
+    */
+   private static void shuffleFairness(String filter)
+   {
+      final String name = "deck.shuffle.chiSquare";
+      final int shuffles = 1_000_000;
+      // z score of the 0.1% upper tail of the normal distribution split
+      // over the 36 tests (Bonferroni), a fair shuffle fails 1 run in 1000
+      final double z = 4.031;
+
+      if (!name.contains(filter))
+         return;
+
+      for (int test = 0; test < 12; test++)
+      {
+         int packs = test % 6 + 1;
+         boolean lazy = test >= 6;
+         Deck deck = new Deck(packs);
+         deck.setLazyShuffle(lazy);
+         int numCards = deck.getNumCards();
+         int[] positions =
+         { 0, numCards / 2, numCards - 1 };
+         long[][] counts = new long[positions.length][Card.NUM_CARD_CODES];
+
+         for (int n = 0; n < shuffles; n++)
+         {
+            // shuffle a fresh deck each time so nothing carries over
+            deck.init(packs);
+            deck.shuffle();
+            for (int dealt = 0, p = 0; p < positions.length; dealt++)
+            {
+               Card card = deck.dealCard();
+               if (dealt == positions[p])
+                  counts[p++][Card.cardAsInt(card)]++;
+            }
+         }
+
+         for (int p = 0; p < positions.length; p++)
+         {
+            // every code of a plain deck appears once per pack
+            double expected = (double) shuffles / Deck.ONE_PACK;
+            double chiSquare = 0;
+            for (int code = 0; code < Deck.ONE_PACK; code++)
+            {
+               double diff = counts[p][code] - expected;
+               chiSquare += diff * diff / expected;
+            }
+
+            // Wilson-Hilferty approximation of the critical value
+            int df = Deck.ONE_PACK - 1;
+            double h = 2.0 / (9 * df);
+            double critical = df * Math.pow(1 - h + z * Math.sqrt(h), 3);
+
+            boolean bad = chiSquare >= critical;
+            skewed |= bad;
+            System.out.println(String.format(
+               "%s %d packs %-5s deal %3d: chi2 %7.2f (df %d, critical"
+                  + " %.2f) %s",
+               name, packs, lazy ? "lazy" : "full", positions[p], chiSquare,
+               df, critical, bad ? "SKEWED" : "ok"));
+         }
+      }
+   }
+
+   /**
+    * One computer turn of the Build game: move search and hand icons
+    */
+   private static void buildBenchmarks(String filter)
+   {
+      // a spread of dealt tables so the search sees different positions
+      final BuildModel[] models = new BuildModel[64];
+      for (int i = 0; i < models.length; i++)
+      {
+         models[i] = new BuildModel(1, 4, 0, null, 2, 7);
+         models[i].dealToHand();
+         models[i].dealToStack();
+      }
+
+      final int[] next =
+      { 0 };
+      runWithBudget(filter, "build.findFirstPlay", 0, () ->
+      {
+         BuildModel model = models[next[0]++ & (models.length - 1)];
+         sink += model.findFirstPlay(0);
+      });
+
+      run(filter, "build.loadHandIcons", () ->
+      {
+         BuildModel model = models[next[0]++ & (models.length - 1)];
+         sink += model.loadHandIcons(1).length;
+      });
+
+      // a 6 pack hand, where listing the moves card by card gets slow
+      final BuildEngine bigHands = new BuildEngine(6, 4, 0, null, 2, 150);
+      bigHands.newGame();
+      final int[] moves = new int[300 * BuildEngine.NUM_STACKS];
+      runWithBudget(filter, "engine.legalMoves 150 cards", 0, () ->
+      {
+         sink += bigHands.legalMoves(1, moves);
+      });
+
+      final Card card = Card.valueOf('T', Card.Suit.HEARTS);
+      run(filter, "gui.getIcon", () ->
+      {
+         sink += GUICard.getIcon(card).getIconWidth();
+      });
+   }
+
+   /**
+    * The Low-Card computer's choice and a whole round, which should not
+    * depend on the size of the hand
+    */
+   private static void lowCardBenchmarks(String filter)
+   {
+      final int[] handSizes =
+      { 7, 26, 150 };
+      final int[] unseen = new int[Card.NUM_RANKS];
+
+      for (int size : handSizes)
+      {
+         final GameModel model = new GameModel(6, 4, 0, null, 2, size);
+         model.deal();
+         runWithBudget(filter, "lowcard.chooseRank " + size + " cards", 0,
+            () ->
+            {
+               sink += model.chooseLowCardRank(0, unseen);
+            });
+
+         final GameModel game = new GameModel(6, 4, 0, null, 2, size);
+         final Card[] cardsInPlay = new Card[2];
+         runWithBudget(filter, "lowcard.round " + size + " cards", 0, () ->
+         {
+            if (game.isGameOver(0))
+            {
+               game.initGame();
+               game.deal();
+            }
+            cardsInPlay[0] = game.playCardOfRank(0, game.chooseLowCardRank(0,
+               unseen));
+            cardsInPlay[1] = game.playCardOfRank(1, game.getHand(1)
+               .getLowestRank());
+            sink += game.determineRoundWinner(cardsInPlay);
+         });
+      }
+   }
+
+   /**
+    * The Build engine with 2 to 50 players on a 6 pack deck: a new deal, the
+    * move search of every seat and whole greedy games, the turn loop
+    */
+   private static void playerBenchmarks(String filter)
+   {
+      final int[] playerCounts =
+      { 2, 4, 10, 25, 50 };
+
+      for (int players : playerCounts)
+      {
+         final BuildEngine engine = new BuildEngine(6, 4, 0, null, players, 7);
+         final int numPlayers = engine.getNumPlayers();
+         final int[] moves = new int[300 * BuildEngine.NUM_STACKS];
+
+         run(filter, "engine.newGame " + players + " players", 3, () ->
+         {
+            engine.newGame();
+            sink += engine.getNumCardsRemainingInDeck();
+         });
+
+         engine.newGame();
+         runWithBudget(filter, "engine.findFirstPlay " + players
+            + " players", 0, () ->
+            {
+               for (int k = 0; k < numPlayers; k++)
+                  sink += engine.findFirstPlay(k);
+            });
+
+         runWithBudget(filter, "engine.legalMoves " + players + " players",
+            0, () ->
+            {
+               for (int k = 0; k < numPlayers; k++)
+                  sink += engine.legalMoves(k, moves);
+            });
+
+         runWithBudget(filter, "engine.greedyGame " + players + " players",
+            0, () ->
+            {
+               engine.newGame();
+               while (!engine.isTerminal())
+               {
+                  int player = engine.getPlayerToMove();
+                  int play = engine.findFirstPlay(player);
+                  if (play >= 0)
+                     engine.applyMove(player, play);
+                  else
+                     engine.pass(player);
+               }
+               sink += engine.getWinner();
+            });
+      }
+   }
+
+   /**
+    * Runs the body over and over for a number of rounds and prints the
+    * average time of one call
+    *
+    * @param filter only cases whose name contains the filter are run
+    * @param name   the name of the case
+    * @param body   one call of the code being timed
+    */
+   static void run(String filter, String name, Runnable body)
+   {
+      run(filter, name, MEASURE_ROUNDS, body);
+   }
+
+   /**
+    * Same as above with fewer rounds, for sweeps over many configurations
+    */
+   static void run(String filter, String name, int rounds, Runnable body)
+   {
+      run(filter, name, rounds, NO_BUDGET, body);
+   }
+
+   /**
+    * Same as above for cases that should allocate at most the given number
+    * of bytes per call, usually none
+    */
+   static void runWithBudget(String filter, String name, long maxBytesPerOp,
+      Runnable body)
+   {
+      run(filter, name, MEASURE_ROUNDS, maxBytesPerOp, body);
+   }
+
+   private static void run(String filter, String name, int rounds,
+      long maxBytesPerOp, Runnable body)
+   {
+      if (!name.contains(filter))
+         return;
+
+      for (int round = 0; round < Math.min(rounds, WARMUP_ROUNDS); round++)
+         timeRound(body);
+
+      double best = Double.MAX_VALUE;
+      double total = 0;
+      for (int round = 0; round < rounds; round++)
+      {
+         double nanosPerCall = timeRound(body);
+         best = Math.min(best, nanosPerCall);
+         total += nanosPerCall;
+      }
+
+      // one more round of about the same length to count the bytes
+      String allocation = "";
+      if (THREADS != null)
+      {
+         long calls = Math.max(64, (long) (ROUND_NANOS / best));
+         long threadId = Thread.currentThread().getId();
+         long before = THREADS.getThreadAllocatedBytes(threadId);
+         for (long i = 0; i < calls; i++)
+            body.run();
+         double bytesPerCall = (double) (THREADS.getThreadAllocatedBytes(
+            threadId) - before) / calls;
+
+         // less than a byte per call is the counter itself, not the body
+         boolean over = maxBytesPerOp != NO_BUDGET && bytesPerCall
+            >= maxBytesPerOp + 1;
+         overBudget |= over;
+         allocation = String.format(" %10.1f B/op%s", bytesPerCall, over
+            ? " OVER BUDGET " + maxBytesPerOp : "");
+      }
+
+      System.out.println(String.format("%-36s %10.1f ns/op (best %.1f)%s",
+         name, total / rounds, best, allocation));
+   }
+
+   // the allocation counter of the JVM, if it has one that is switched on
+   private static com.sun.management.ThreadMXBean allocationCounter()
+   {
+      if (!(ManagementFactory
+         .getThreadMXBean() instanceof com.sun.management.ThreadMXBean))
+         return null;
+
+      com.sun.management.ThreadMXBean threads =
+         (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+      if (!threads.isThreadAllocatedMemorySupported())
+         return null;
+      threads.setThreadAllocatedMemoryEnabled(true);
+      return threads;
+   }
+
+   // calls the body until the round time is used up
+   private static double timeRound(Runnable body)
+   {
+      long calls = 0;
+      long start = System.nanoTime();
+      long elapsed;
+      do
+      {
+         for (int i = 0; i < 64; i++)
+            body.run();
+         calls += 64;
+         elapsed = System.nanoTime() - start;
+      } while (elapsed < ROUND_NANOS);
+
+      return (double) elapsed / calls;
+   }
+}
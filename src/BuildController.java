@@ -1,5 +1,9 @@
 import javax.swing.*;
 import java.awt.event.*;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /****************************************************************
  * BuildController
@@ -16,13 +20,31 @@ public class BuildController implements ActionListener
    private int HUMAN = 1; // Index for human hand
    private int COMPUTER = 0; // Index for computer hand
 
-   private boolean humanPlayed = false; // human starts first
-   private boolean compPlayed = true; // computer still can play
-   private boolean humanTurn = true; // false for computer turn
    private int humanCardIndex = -1; // no card is selected in human hand
 
+   // time the computer thinks about a move, 0 plays the first card that fits
+   private static final long THINK_MILLIS = Long.getLong("build.thinkMillis",
+      300);
+   private BuildStrategy computerStrategy;
+
+   // the computer thinks on its own thread so the window stays responsive,
+   // the model is only changed on the event dispatch thread
+   private final ExecutorService computerThread = Executors
+      .newSingleThreadExecutor(task ->
+      {
+         Thread thread = new Thread(task, "Build computer");
+         thread.setDaemon(true);
+         return thread;
+      });
+   private boolean computerThinking = false; // human input is ignored
+
+   // the human's legal moves, listed again only when the game changes
+   private int[] humanMoves = new int[0];
+   private boolean[] humanPlayable = new boolean[0];
+   private int numHumanMoves = 0;
+   private boolean autoPass = false; // pass for the human when nothing fits
+
    private TimerLabel timerLabel;
-   private Timer timerCount;
 
    /**
     * Constructor that starts a new game using a model and a view
@@ -34,7 +56,16 @@ public class BuildController implements ActionListener
    {
       theModel = model;
       theView = view;
+      // guess and play out most of the game, search the last few cards
+      if (THINK_MILLIS > 0)
+         computerStrategy = new EndgameBuildStrategy(
+            new MonteCarloBuildStrategy(THINK_MILLIS), THINK_MILLIS);
+      else
+         computerStrategy = new GreedyBuildStrategy();
 
+      // the human sees the hand, cards must not jump around when one is
+      // played
+      theModel.keepHandOrder(HUMAN);
       theModel.startNewGame();
       theView.createTable();
 
@@ -46,6 +77,7 @@ public class BuildController implements ActionListener
       loadPlayerHands(); // display the computer and human hand
       loadStack(); // display the stacks in playing area
       loadScore(); // display score and timer
+      showHumanMoves();
    }
 
    /**
@@ -112,11 +144,9 @@ public class BuildController implements ActionListener
     */
    public void loadTimer()
    {
-      timerCount = new Timer();
-      timerLabel = new TimerLabel(true, timerCount);
+      timerLabel = new TimerLabel(true);
 
       theView.setTimerLabel(timerLabel);
-      timerCount.setJLabel(theView.getTimerLabel());
    }
 
    /**
@@ -127,28 +157,32 @@ public class BuildController implements ActionListener
    @Override
    public void actionPerformed(ActionEvent e)
    {
+      theView.markInput();
+
       // Get the card that the user clicked
       String cardPlayed = e.getActionCommand();
       int cardIndex = Integer.parseInt(cardPlayed);
 
-      if (cardIndex == BuildView.BUTTON_INDEX)
+      if (cardIndex == BuildView.AUTO_PASS_INDEX)
       {
-         // Human can't play
-         humanNotPlay();
+         autoPass = ((AbstractButton) e.getSource()).isSelected();
+         if (autoPass && !computerThinking)
+            showHumanMoves(); // passes now if nothing fits
       }
       else if (cardIndex == BuildView.TIMER_BUTTON_INDEX)
       {
-         // timer is toggled
-         if (timerCount.isAlive())
-         {
-            timerCount.stopThread();
-            timerCount = new Timer(timerCount.secElapsed());
-            timerCount.setJLabel(theView.getTimerLabel());
-         }
-         else
-         {
-            timerCount.start();
-         }
+         // timer is toggled, it goes on from where it was paused
+         timerLabel.getClock().toggle();
+      }
+      else if (computerThinking)
+      {
+         // wait for the computer's move
+         return;
+      }
+      else if (cardIndex == BuildView.BUTTON_INDEX)
+      {
+         // Human can't play
+         humanNotPlay();
       }
       else if (cardIndex >= BuildView.STACK_BASE_INDEX)
       {
@@ -161,40 +195,113 @@ public class BuildController implements ActionListener
          selectCard(cardIndex);
       }
 
-      if (!humanTurn)
+      if (!computerThinking && !theModel.isTerminal()
+         && theModel.getPlayerToMove() == COMPUTER)
       {
          // it is computer turn to play
-         computerPlay();
+         startComputerTurn();
       }
    }
 
    /**
-    * This is to check if the human did not play and then checks if the computer
-    * did not play as well and adds to their scores by 1 for not playing
+    * Lists the human's legal moves and shows which cards fit, which stacks
+    * the selected card fits on, and offers a pass when nothing fits. Called
+    * after every change of the game, clicks only use what it found.
+    */
+   private void showHumanMoves()
+   {
+      int numCards = theModel.getNumCardsInHand(HUMAN);
+      if (humanPlayable.length < numCards)
+      {
+         humanPlayable = new boolean[numCards];
+         humanMoves = new int[numCards * BuildEngine.NUM_STACKS];
+      }
+      Arrays.fill(humanPlayable, false);
+
+      // the engine finds the moves from its rank index, not by trying
+      // every card
+      boolean humanTurn = !theModel.isTerminal()
+         && theModel.getPlayerToMove() == HUMAN;
+      numHumanMoves = humanTurn ? theModel.legalMoves(HUMAN, humanMoves) : 0;
+      for (int m = 0; m < numHumanMoves; m++)
+         humanPlayable[humanMoves[m] / BuildEngine.NUM_STACKS] = true;
+
+      theView.showPlayableCards(humanPlayable, numCards);
+      showTargetStacks();
+      theView.offerPass(humanTurn && numHumanMoves == 0);
+
+      if (autoPass && humanTurn && numHumanMoves == 0)
+      {
+         // let the window show the last move before passing
+         SwingUtilities.invokeLater(() ->
+         {
+            if (computerThinking || theModel.isTerminal()
+               || theModel.getPlayerToMove() != HUMAN)
+               return;
+            humanNotPlay();
+            if (!theModel.isTerminal())
+               startComputerTurn();
+         });
+      }
+   }
+
+   // marks the stacks the selected card fits on
+   private void showTargetStacks()
+   {
+      int stackBits = 0;
+      if (humanCardIndex >= 0 && humanCardIndex < humanPlayable.length
+         && humanPlayable[humanCardIndex])
+         stackBits = theModel.getTargetStacks(theModel.getHand(HUMAN)
+            .inspectCard(humanCardIndex));
+      theView.showTargetStacks(stackBits);
+   }
+
+   /**
+    * Lets the computer choose its move on a copy of the game, away from the
+    * event dispatch thread. The move is made back on that thread.
+    */
+   private void startComputerTurn()
+   {
+      computerThinking = true;
+      theView.updateCompStatus("Computer Thinking...");
+      showHumanMoves(); // nothing is playable until the computer moved
+
+      BuildEngine snapshot = new BuildEngine(theModel);
+      CompletableFuture
+         .supplyAsync(() -> computerStrategy.chooseMove(snapshot, COMPUTER),
+            computerThread)
+         .whenComplete((play, error) -> SwingUtilities.invokeLater(() ->
+         {
+            computerThinking = false;
+            // on an error play something rather than stall the game
+            computerPlay(error == null ? play
+               : new GreedyBuildStrategy().chooseMove(theModel, COMPUTER));
+            showHumanMoves();
+         }));
+   }
+
+   /**
+    * The human can't play, passing costs a point. If the computer did not play
+    * either the engine reloads the stacks.
     */
    private void humanNotPlay()
    {
-      humanPlayed = false; // human can't play
-      humanTurn = false; // human turn is over
-      theModel.addScore(HUMAN); // increment the score
+      // the deck only shrinks on a pass if the stacks are reloaded
+      int deckBefore = theModel.getNumCardsRemainingInDeck();
+      if (!theModel.pass(HUMAN))
+         return;
+
       // display human score since it is changed
       theView.createScoreLabels(theModel.getPlayerScore(COMPUTER), theModel
          .getPlayerScore(HUMAN));
 
-      if (!compPlayed)
+      if (theModel.isTerminal())
       {
-         // computer did not play as well, need to reload the stacks
-         theModel.dealToStack();
-         if (theModel.isGameOver())
-         {
-            // not enough cards, game ends
-            endGame();
-         }
-         loadStack();
-         // new cards on stack, reset the flags for human and computer
-         humanPlayed = true;
-         compPlayed = true;
+         // not enough cards, game ends
+         endGame();
       }
+      if (theModel.getNumCardsRemainingInDeck() != deckBefore)
+         loadStack(); // new stack cards
    }
 
    /**
@@ -212,100 +319,94 @@ public class BuildController implements ActionListener
             // remove the highlight of previous selected card
             theView.unhighlightCard(humanCardIndex);
          }
-         // highlight the selected card
+         // highlight the selected card and where it fits
          theView.highlightCard(cardIndex);
          humanCardIndex = cardIndex;
+         showTargetStacks();
       }
    }
 
    /**
-    * The computer takes its turn and makes a move
+    * The computer makes its move
+    * 
+    * @param play the move code chosen by the strategy
     */
-   private void computerPlay()
+   private void computerPlay(int play)
    {
-      Card[] stack = theModel.getStack();
-      Hand computer = theModel.getHand(COMPUTER);
-      boolean found = false;
-      for (int i = 0; i < stack.length && !found; i++)
+      // the move was chosen on a copy, if it is not legal here the first
+      // card that fits is played, and if none fits the computer passes
+      Card computerCard = null;
+      if (play != BuildEngine.PASS)
       {
-         Card stackCard = stack[i];
-         int stackValue = Card.valueAsInt(stackCard);
-         for (int j = 0; j < computer.getNumCards() && !found; j++)
+         computerCard = playComputerCard(play);
+         if (computerCard == null)
          {
-            Card computerCard = computer.inspectCard(j);
-            int computerValue = Card.valueAsInt(computerCard);
-            if (Math.abs(stackValue - computerValue) == 1)
-            {
-               // found a computer card can place on the stack
-               found = true;
-
-               // replace the stack card with the computer card
-               theModel.setStackCard(i, computerCard);
-               Icon stackIcon = GUICard.getIcon(computerCard);
-               theView.changeStackIcon(i, stackIcon);
-
-               // play the computer card then take a card from deck
-               theModel.playCard(COMPUTER, j);
-               theModel.takeCard(COMPUTER);
-
-               // check if game is over
-               if (theModel.isGameOver())
-               {
-                  endGame();
-               }
-               else
-               {
-                  // game continues
-                  Icon compLabel = GUICard.getBackCardIcon(); // back side of
-                                                              // the card
-                  // Display info with the GameView class
-                  theView.createCompLabels(compLabel, theModel.getHand(COMPUTER)
-                     .getNumCards());
-
-                  // computer turn is done
-                  compPlayed = true;
-                  humanTurn = true;
-               }
-            }
+            play = theModel.findFirstPlay(COMPUTER);
+            if (play >= 0)
+               computerCard = playComputerCard(play);
+         }
+      }
+
+      if (computerCard != null)
+      {
+         // the card is on the stack and a card was taken from the deck
+         theView.changeStackIcon(play % BuildEngine.NUM_STACKS, GUICard
+            .getIcon(computerCard));
+
+         // check if game is over
+         if (theModel.isTerminal())
+         {
+            endGame();
+         }
+         else
+         {
+            // game continues
+            Icon compLabel = GUICard.getBackCardIcon(); // back side of
+                                                        // the card
+            // Display info with the GameView class
+            theView.createCompLabels(compLabel, theModel.getHand(COMPUTER)
+               .getNumCards());
          }
+         // show computer has played
+         theView.updateCompStatus("Computer Played");
       }
-      if (!found)
+      else
       {
          // Computer can't play
-         compPlayed = false;
-         humanTurn = true; // computer turn is over
-         theModel.addScore(COMPUTER); // increment the score
-         // display human score since it is changed
+         int deckBefore = theModel.getNumCardsRemainingInDeck();
+         if (!theModel.pass(COMPUTER))
+            return; // not the computer's turn, nothing changed
+         // display computer score since it is changed
          theView.createScoreLabels(theModel.getPlayerScore(COMPUTER), theModel
             .getPlayerScore(HUMAN));
          theView.updateCompStatus("Computer Can't Play");
 
-         if (!humanPlayed)
+         // check if the game is over first
+         if (theModel.isTerminal())
          {
-            // human did not play as well, need to reload the stacks
-            theModel.dealToStack();
-
-            // check if the game is over first
-            if (theModel.isGameOver())
-            {
-               // not enough cards, game ends
-               endGame();
-            }
-            loadStack(); // new stack cards
-            // new cards on stack, reset the flags for human and computer
-            humanPlayed = true;
-            compPlayed = true;
-
+            // not enough cards, game ends
+            endGame();
          }
-
-      }
-      else
-      {
-         // show computer has played
-         theView.updateCompStatus("Computer Played");
+         if (theModel.getNumCardsRemainingInDeck() != deckBefore)
+            loadStack(); // human did not play as well, new stack cards
       }
    }
 
+   /**
+    * Puts a card of the computer on a stack and takes a card from the deck
+    *
+    * @param play the move code
+    * @return the card played, or null if the move is not legal
+    */
+   private Card playComputerCard(int play)
+   {
+      int cardIndex = play / BuildEngine.NUM_STACKS;
+      Card card = theModel.getHand(COMPUTER).inspectCard(cardIndex);
+      if (!theModel.play(COMPUTER, cardIndex, play % BuildEngine.NUM_STACKS))
+         return null;
+      return card;
+   }
+
    /**
     * the human takes the turn and makes its move on the specific stack
     * 
@@ -317,26 +418,13 @@ public class BuildController implements ActionListener
       if (humanCardIndex >= 0)
       {
          // card is selected to place on the stack
-         Card[] stack = theModel.getStack();
-         Hand hand = theModel.getHand(HUMAN);
-         Card stackCard = stack[stackIndex];
-         int stackValue = Card.valueAsInt(stackCard);
-         Card humanCard = hand.inspectCard(humanCardIndex);
-         int humanValue = Card.valueAsInt(humanCard);
-         if (Math.abs(stackValue - humanValue) == 1)
+         Card humanCard = theModel.getHand(HUMAN).inspectCard(humanCardIndex);
+         if (theModel.play(HUMAN, humanCardIndex, stackIndex))
          {
-            // the human card can place on the stack
-
-            // replace the stack card with human card
-            theModel.setStackCard(stackIndex, humanCard);
-            Icon stackIcon = GUICard.getIcon(humanCard);
-            theView.changeStackIcon(stackIndex, stackIcon);
-
-            // play the human card then take a card from deck
-            theModel.playCard(HUMAN, humanCardIndex);
-            theModel.takeCard(HUMAN);
+            // the human card is on the stack and a new card is drawn
+            theView.changeStackIcon(stackIndex, GUICard.getIcon(humanCard));
 
-            if (theModel.isGameOver())
+            if (theModel.isTerminal())
             {
                endGame();
             }
@@ -349,8 +437,6 @@ public class BuildController implements ActionListener
 
                // human turn is done
                humanCardIndex = -1; // clear the selected card
-               humanPlayed = true;
-               humanTurn = false;
             }
          }
          else
@@ -0,0 +1,2129 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/****************************************************************
+ * BuildEngine
+ *
+ * Description: The rules of the card game "BUILD" without any GUI: the deck,
+ *              hands, stacks, whose turn it is, legal moves, passing and
+ *              scores
+ * Usage:       BuildModel extends it for the GUI, simulations and tests can
+ *              use it directly on a machine without a display
+ *****************************************************************/
+
+public class BuildEngine
+{
+   private static final int MAX_PLAYERS = 50;
+   public static final int NUM_STACKS = 3; // only 3 stacks for the game
+
+   // move code of a pass, see applyMove
+   public static final int PASS = -1;
+
+   private int numPlayers;
+   private int numPacks; // # standard 52-card packs per deck
+
+   private int numJokersPerPack; // if 2 per pack & 3 packs per deck, get 6
+   private int numUnusedCardsPerPack; // # cards removed from each pack
+   private int numCardsPerHand; // # cards to deal each player
+   private Card[] unusedCardsPerPack; // an array holding the cards not used
+
+   private Deck deck; // holds the initial full deck and gets
+
+   // smaller (usually) during play
+   private Hand[] hand; // one Hand for each player
+   private boolean[] keepOrder; // hands shown face up keep their order
+   private Card[] stack = new Card[NUM_STACKS];
+
+   // bit (rank * 4 + suit) is set for every card that may go on the stack
+   private long[] stackMask = new long[NUM_STACKS];
+   private static final long[] ADJACENT_RANK_MASK = new long[Card.NUM_RANKS];
+
+   // bit i is set for every stack i showing a card of that rank
+   private int[] stacksOfRank = new int[Card.NUM_RANKS];
+
+   static
+   {
+      // a card fits on a stack if its rank is one above or one below
+      for (int rank = 0; rank < Card.NUM_RANKS; rank++)
+      {
+         if (rank > 0)
+            ADJACENT_RANK_MASK[rank] |= Card.rankMask(rank - 1);
+         if (rank < Card.NUM_RANKS - 1)
+            ADJACENT_RANK_MASK[rank] |= Card.rankMask(rank + 1);
+      }
+   }
+
+   // one point for every pass, the low score wins
+   private int[] score;
+   private int playerToMove;
+   private int consecutivePasses; // stacks are reloaded when all have passed
+   private boolean deckExhausted = false;
+
+   /**
+    * Constructor that takes arguments to create a new game
+    *
+    * @param numPacks              number of packs in the deck
+    * @param numJokersPerPack      number of jokers added to the deck
+    * @param numUnusedCardsPerPack number of unused cards removed from the deck
+    * @param unusedCardsPerPack    list of unused cards
+    * @param numPlayers            number of players
+    * @param numCardsPerHand       number of cards to each player initially
+    */
+   public BuildEngine(int numPacks, int numJokersPerPack,
+      int numUnusedCardsPerPack, Card[] unusedCardsPerPack, int numPlayers,
+      int numCardsPerHand)
+   {
+
+      int k;
+      // filter bad values
+      if (numPacks < 1 || numPacks > 6)
+         numPacks = 1;
+      if (numJokersPerPack < 0 || numJokersPerPack > 4)
+         numJokersPerPack = 0;
+      if (numUnusedCardsPerPack < 0 || numUnusedCardsPerPack > 50) // > 1 card
+         numUnusedCardsPerPack = 0;
+      if (numPlayers < 1 || numPlayers > MAX_PLAYERS)
+         numPlayers = 4;
+      // one of many ways to assure at least one full deal to all players
+      if (numCardsPerHand < 1 || numCardsPerHand > numPacks * (52
+         - numUnusedCardsPerPack) / numPlayers)
+         numCardsPerHand = numPacks * (52 - numUnusedCardsPerPack) / numPlayers;
+
+      // allocate
+      this.unusedCardsPerPack = new Card[numUnusedCardsPerPack];
+      this.hand = new Hand[numPlayers];
+      for (k = 0; k < numPlayers; k++)
+         this.hand[k] = new Hand();
+      this.score = new int[numPlayers];
+      this.keepOrder = new boolean[numPlayers];
+      deck = new Deck(numPacks);
+      deck.setLazyShuffle(true); // only shuffle the cards that get dealt
+
+      // assign to members
+      this.numPacks = numPacks;
+      this.numJokersPerPack = numJokersPerPack;
+      this.numUnusedCardsPerPack = numUnusedCardsPerPack;
+      this.numPlayers = numPlayers;
+      this.numCardsPerHand = numCardsPerHand;
+      for (k = 0; k < numUnusedCardsPerPack; k++)
+         this.unusedCardsPerPack[k] = unusedCardsPerPack[k];
+
+      // prepare deck and shuffle
+      initGame();
+   }
+
+   /**
+    * constructor override/default for game
+    */
+   public BuildEngine()
+   {
+      // only one pack, no jokers, no unused cards
+      // only two players and each starts with seven cards
+      this(1, 0, 0, null, 2, 7);
+   }
+
+   /**
+    * Copy constructor, the copy can be played on without changing the
+    * original. The copy's deck has its own random number generator.
+    * 
+    * @param other the engine to copy
+    */
+   public BuildEngine(BuildEngine other)
+   {
+      numPlayers = other.numPlayers;
+      hand = new Hand[numPlayers];
+      for (int k = 0; k < numPlayers; k++)
+         hand[k] = new Hand();
+      score = new int[numPlayers];
+      keepOrder = new boolean[numPlayers];
+      deck = new Deck(other.numPacks);
+      copyFrom(other);
+   }
+
+   /**
+    * Makes this engine the same as the other one: settings, deck, hands,
+    * stacks, scores and turn. Reuses this engine's arrays, so searches can
+    * copy a position over and over without allocating.
+    * 
+    * @param other an engine with the same number of players
+    * @return true if successful, false if the number of players differs
+    */
+   public boolean copyFrom(BuildEngine other)
+   {
+      if (other.numPlayers != numPlayers)
+         return false;
+
+      numPacks = other.numPacks;
+      numJokersPerPack = other.numJokersPerPack;
+      numUnusedCardsPerPack = other.numUnusedCardsPerPack;
+      numCardsPerHand = other.numCardsPerHand;
+      unusedCardsPerPack = other.unusedCardsPerPack; // never changed
+
+      deck.copyFrom(other.deck);
+      for (int k = 0; k < numPlayers; k++)
+         hand[k].copyFrom(other.hand[k]);
+      for (int i = 0; i < NUM_STACKS; i++)
+         setStackCard(i, other.stack[i]);
+
+      System.arraycopy(other.keepOrder, 0, keepOrder, 0, numPlayers);
+      System.arraycopy(other.score, 0, score, 0, numPlayers);
+      playerToMove = other.playerToMove;
+      consecutivePasses = other.consecutivePasses;
+      deckExhausted = other.deckExhausted;
+      return true;
+   }
+
+   /**
+    * Deals the cards the viewer cannot see again: the other players' hands
+    * and the deck are shuffled together and the hands refilled to their old
+    * sizes. The deck gets a fixed order, so copies of the engine deal the
+    * same cards.
+    * 
+    * @param viewer the player whose hand stays as it is
+    */
+   public void redealHiddenCards(int viewer)
+   {
+      int[] sizes = new int[numPlayers];
+      for (int k = 0; k < numPlayers; k++)
+      {
+         if (k == viewer)
+            continue;
+         sizes[k] = hand[k].getNumCards();
+         while (hand[k].getNumCards() > 0)
+            deck.addCard(hand[k].playCard());
+      }
+
+      deck.shuffle();
+      for (int k = 0; k < numPlayers; k++)
+         for (int n = 0; n < sizes[k]; n++)
+            hand[k].takeCard(deck.dealCard());
+      deck.finishShuffle();
+   }
+
+   /**
+    * Starts a new game: new shuffled deck, cards dealt to each hand and the
+    * stacks, scores back to zero
+    */
+   public void newGame()
+   {
+      initGame();
+      dealToHand();
+      dealToStack();
+   }
+
+   /**
+    * start a new deck and reset hands and scores. Shuffle the deck.
+    */
+   public void initGame()
+   {
+      int k, j;
+
+      // clear the hands and the scores
+      for (k = 0; k < numPlayers; k++)
+      {
+         hand[k].resetHand();
+         score[k] = 0;
+      }
+      for (k = 0; k < NUM_STACKS; k++)
+         setStackCard(k, null);
+
+      // the human (player 1) starts first
+      playerToMove = numPlayers > 1 ? 1 : 0;
+      consecutivePasses = 0;
+      deckExhausted = false;
+
+      // restock the deck
+      deck.init(numPacks);
+
+      // remove unused cards
+      for (k = 0; k < numUnusedCardsPerPack; k++)
+         deck.removeCard(unusedCardsPerPack[k]);
+
+      // add jokers
+      for (k = 0; k < numPacks; k++)
+         for (j = 0; j < numJokersPerPack; j++)
+            deck.addCard(Card.valueOf('X', Card.SUITS[j]));
+
+      // shuffle the cards
+      deck.shuffle();
+   }
+
+   /**
+    * Sets the random number generator of the deck, so that games can be
+    * replayed from a seed
+    */
+   public void setRandom(RandomGenerator random)
+   {
+      deck.setRandom(random);
+   }
+
+   /**
+    * deal the specified number of cards to each hand
+    *
+    * @return true if successful, false if not enough cards
+    */
+   public boolean dealToHand()
+   {
+      // returns false if not enough cards, but deals what it can
+      int k, j;
+      boolean enoughCards;
+
+      // clear all hands
+      for (j = 0; j < numPlayers; j++)
+         hand[j].resetHand();
+
+      enoughCards = true;
+      for (k = 0; k < numCardsPerHand && enoughCards; k++)
+      {
+         for (j = 0; j < numPlayers; j++)
+            if (deck.getNumCards() > 0)
+               hand[j].takeCard(deck.dealCard());
+            else
+            {
+               enoughCards = false;
+               break;
+            }
+      }
+      return enoughCards;
+   }
+
+   /**
+    * Deal cards to each stack
+    *
+    * @return true if successful, false if not enough cards
+    */
+   public boolean dealToStack()
+   {
+      for (int i = 0; i < NUM_STACKS; i++)
+      {
+         if (deck.getNumCards() > 0)
+         {
+            setStackCard(i, deck.dealCard());
+         }
+         else
+         {
+            // set the exhausted flag since no more cards in the deck
+            deckExhausted = true;
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * The player puts a card of the hand on a stack and draws a new card from
+    * the deck. The game is over if the deck was empty. The last card of the
+    * hand takes the played card's place, unless keepHandOrder was called.
+    *
+    * @param playerIndex the player, must be the one to move
+    * @param cardIndex   the index of the card in the player's hand
+    * @param stackIndex  the stack to put the card on
+    * @return true if the move was made, false if it is not a legal move
+    */
+   public boolean play(int playerIndex, int cardIndex, int stackIndex)
+   {
+      if (deckExhausted || playerIndex != playerToMove)
+         return false;
+
+      Card card = hand[playerIndex].inspectCard(cardIndex);
+      if (!isLegalPlay(card, stackIndex))
+         return false;
+
+      // replace the stack card with the played card, then draw
+      setStackCard(stackIndex, card);
+      if (keepOrder[playerIndex])
+         hand[playerIndex].playCard(cardIndex);
+      else
+         hand[playerIndex].playCardBySwap(cardIndex);
+      takeCard(playerIndex);
+
+      consecutivePasses = 0;
+      playerToMove = (playerToMove + 1) % numPlayers;
+      return true;
+   }
+
+   /**
+    * The player passes and gets a point. When every player has passed in a
+    * row the stacks get new cards from the deck, and the game is over if
+    * there are not enough.
+    *
+    * @param playerIndex the player, must be the one to move
+    * @return true if the pass was made, false if it is not the player's turn
+    */
+   public boolean pass(int playerIndex)
+   {
+      if (deckExhausted || playerIndex != playerToMove)
+         return false;
+
+      score[playerIndex]++;
+      if (++consecutivePasses >= numPlayers)
+      {
+         // nobody could play, reload the stacks
+         dealToStack();
+         consecutivePasses = 0;
+      }
+
+      playerToMove = (playerToMove + 1) % numPlayers;
+      return true;
+   }
+
+   /**
+    * Makes a move given as a move code, see legalMoves
+    *
+    * @param playerIndex the player, must be the one to move
+    * @param move        cardIndex * NUM_STACKS + stackIndex, or PASS
+    * @return true if the move was made
+    */
+   public boolean applyMove(int playerIndex, int move)
+   {
+      if (move == PASS)
+         return pass(playerIndex);
+      if (move < 0)
+         return false;
+
+      return play(playerIndex, move / NUM_STACKS, move % NUM_STACKS);
+   }
+
+   /**
+    * Lists every card the player can put on every stack. Passing is always
+    * allowed and is not listed. Uses the rank index of the hand and of the
+    * stacks, so the cost depends on the stacks and the moves found, not on
+    * the size of the hand.
+    *
+    * @param playerIndex the specified player
+    * @param moves       gets the move codes, cardIndex * NUM_STACKS +
+    *                    stackIndex, needs room for cards in hand * NUM_STACKS
+    * @return the number of moves
+    */
+   public int legalMoves(int playerIndex, int[] moves)
+   {
+      int numMoves = 0;
+      if (deckExhausted || getPlayableMask(playerIndex) == 0)
+         return 0;
+
+      // each rank on the stacks asks the hand for its cards one rank above
+      // and one below, they go on every stack showing that rank
+      Hand playerHand = getHand(playerIndex);
+      for (int i = 0; i < NUM_STACKS; i++)
+      {
+         int rank = stackRank(i);
+         if (rank < 0 || (stacksOfRank[rank] & ((1 << i) - 1)) != 0)
+            continue; // no card, or a stack before it has the same rank
+
+         for (int near = rank - 1; near <= rank + 1; near += 2)
+         {
+            if (near < 0 || near >= Card.NUM_RANKS)
+               continue;
+            for (int n = 0; n < playerHand.getRankCount(near); n++)
+            {
+               int position = playerHand.getRankPosition(near, n);
+               for (int targets = stacksOfRank[rank]; targets != 0;
+                  targets &= targets - 1)
+                  moves[numMoves++] = position * NUM_STACKS
+                     + Integer.numberOfTrailingZeros(targets);
+            }
+         }
+      }
+      return numMoves;
+   }
+
+   /**
+    * Checks if the game is over, that is the deck ran out
+    */
+   public boolean isTerminal()
+   {
+      return deckExhausted;
+   }
+
+   /**
+    * Returns the player whose turn it is
+    */
+   public int getPlayerToMove()
+   {
+      return playerToMove;
+   }
+
+   /**
+    * Returns the player with the lowest score, -1 if it is a tie
+    */
+   public int getWinner()
+   {
+      int winner = 0;
+      boolean tie = false;
+      for (int k = 1; k < numPlayers; k++)
+      {
+         if (score[k] < score[winner])
+         {
+            winner = k;
+            tie = false;
+         }
+         else if (score[k] == score[winner])
+            tie = true;
+      }
+      return tie ? -1 : winner;
+   }
+
+   /**
+    * Play the indicated card for the specified player
+    *
+    * @param playerIndex the index to which player
+    * @param cardIndex   the index of the card in player's hand
+    * @return the card from the player's as indicated
+    */
+   public Card playCard(int playerIndex, int cardIndex)
+   {
+      // returns bad card if either argument is bad
+      if (playerIndex < 0 || playerIndex > numPlayers - 1)
+      {
+         // Returns a card that does not work
+         return Card.errorCard();
+      }
+
+      // return the card played, a bad card if cardIndex is bad
+      return hand[playerIndex].playCard(cardIndex);
+
+   }
+
+   /**
+    * Play the indicated card for the specified player without keeping the
+    * order of the rest of the hand (see Hand.playCardBySwap)
+    *
+    * @param playerIndex the index to which player
+    * @param cardIndex   the index of the card in player's hand
+    * @return the card from the player's as indicated
+    */
+   public Card playCardBySwap(int playerIndex, int cardIndex)
+   {
+      if (playerIndex < 0 || playerIndex > numPlayers - 1)
+      {
+         // Returns a card that does not work
+         return Card.errorCard();
+      }
+
+      return hand[playerIndex].playCardBySwap(cardIndex);
+   }
+
+   /**
+    * deal a card from the deck to the specified player
+    *
+    * @param playerIndex the specified player
+    * @return true if successful, false if deck is empty
+    */
+   public boolean takeCard(int playerIndex)
+   {
+      // returns false if either argument is bad
+      if (playerIndex < 0 || playerIndex > numPlayers - 1)
+         return false;
+
+      // Are there enough Cards?
+      if (deck.getNumCards() <= 0)
+      {
+         // deck is empty, set the flag
+         deckExhausted = true;
+         return false;
+      }
+      // deck is not empty, deal a card to player
+      return hand[playerIndex].takeCard(deck.dealCard());
+   }
+
+   /**
+    * Checks if the game is over by checking if the flag is set
+    *
+    * @return true if the game is over
+    */
+   public boolean isGameOver()
+   {
+      return isTerminal();
+   }
+
+   /**
+    * Increment the score counter of the specified player
+    *
+    * @param playerIndex the specified player
+    */
+   public void addScore(int playerIndex)
+   {
+      if (playerIndex >= 0 && playerIndex < numPlayers)
+         score[playerIndex]++;
+   }
+
+   /**
+    * Retrieves the specified player's total score
+    *
+    * @param playerIndex the specified player
+    * @return the player's score
+    */
+   public int getPlayerScore(int playerIndex)
+   {
+      if (playerIndex < 0 || playerIndex >= numPlayers)
+         return -1; // If input is incorrect
+
+      return score[playerIndex];
+   }
+
+   /**
+    * Sort the hands of each player
+    */
+   public void sortHands()
+   {
+      int k;
+
+      for (k = 0; k < numPlayers; k++)
+         hand[k].sort();
+   }
+
+   /**
+    * Sorts the specified player's hand
+    *
+    * @param playerIndex the specified player
+    */
+   public void sortHand(int playerIndex)
+   {
+      getHand(playerIndex).sort();
+   }
+
+   /**
+    * Keeps the specified player's hand sorted from now on, see
+    * Hand.setKeepSorted
+    *
+    * @param playerIndex the specified player
+    */
+   public void keepHandSorted(int playerIndex)
+   {
+      getHand(playerIndex).setKeepSorted(true);
+   }
+
+   /**
+    * Keeps the order of the specified player's hand when a card is played,
+    * for a hand that is shown face up
+    * 
+    * @param playerIndex the specified player
+    */
+   public void keepHandOrder(int playerIndex)
+   {
+      if (playerIndex >= 0 && playerIndex < numPlayers)
+         keepOrder[playerIndex] = true;
+   }
+
+   /**
+    * Returns the number of cards in a players hand
+    *
+    * @param playerIndex the specified player
+    * @return the number of cards
+    */
+   public int getNumCardsInHand(int playerIndex)
+   {
+      return getHand(playerIndex).getNumCards();
+   }
+
+   /**
+    * Return the hand of the specified player
+    *
+    * @param k the specified player
+    * @return the hand of the player
+    */
+   public Hand getHand(int k)
+   {
+      // hands start from 0 like arrays
+
+      // on error return automatic empty hand
+      if (k < 0 || k >= numPlayers)
+         return new Hand();
+
+      return hand[k];
+   }
+
+   /**
+    * Get a card from the deck
+    *
+    * @return the card if deck is not empty
+    */
+   public Card getCardFromDeck()
+   {
+      if (deck.getNumCards() == 0)
+      {
+         // set the flag to indicate deck is empty
+         deckExhausted = true;
+      }
+
+      return deck.dealCard();
+   }
+
+   /**
+    * Return the number of cards left in the deck
+    */
+   public int getNumCardsRemainingInDeck()
+   {
+      return deck.getNumCards();
+   }
+
+   /**
+    * Returns how many copies of the card are left in the deck
+    */
+   public int getDeckCardCount(Card card)
+   {
+      return deck.getCardCount(card);
+   }
+
+   /**
+    * Returns how many players passed in a row, the stacks are reloaded when
+    * it reaches the number of players
+    */
+   public int getConsecutivePasses()
+   {
+      return consecutivePasses;
+   }
+
+   /**
+    * Return the number of cards of a hand
+    */
+   public int getNumCardsPerHand()
+   {
+      return numCardsPerHand;
+   }
+
+   /**
+    * Return the number of players
+    */
+   public int getNumPlayers()
+   {
+      return numPlayers;
+   }
+
+   /**
+    * Return the number of packs in the deck
+    */
+   public int getNumPacks()
+   {
+      return numPacks;
+   }
+
+   /**
+    * Return the number of jokers added to each pack
+    */
+   public int getNumJokersPerPack()
+   {
+      return numJokersPerPack;
+   }
+
+   /**
+    * Return the stack cards array
+    */
+   public Card[] getStack()
+   {
+      return stack;
+   }
+
+   /**
+    * Replace the card of specified stack with the given card
+    *
+    * @return true if successful
+    */
+   public boolean setStackCard(int stackIndex, Card card)
+   {
+      if (stackIndex < NUM_STACKS && stackIndex >= 0)
+      {
+         // replace the card of the specified stack
+         int oldRank = stackRank(stackIndex);
+         if (oldRank >= 0)
+            stacksOfRank[oldRank] &= ~(1 << stackIndex);
+         stack[stackIndex] = card;
+         if (card == null || card.getErrorFlag())
+            stackMask[stackIndex] = 0;
+         else
+         {
+            int rank = Card.valueAsInt(card);
+            stackMask[stackIndex] = ADJACENT_RANK_MASK[rank];
+            stacksOfRank[rank] |= 1 << stackIndex;
+         }
+         return true;
+      }
+      return false;
+   }
+
+   /**
+    * Returns the cards of the player that can go on the specified stack, as a
+    * bit mask of card codes (see Card.cardAsInt)
+    * 
+    * @param playerIndex the specified player
+    * @param stackIndex  the specified stack
+    * @return bit mask of playable cards, 0 if there is none
+    */
+   public long getPlayableMask(int playerIndex, int stackIndex)
+   {
+      if (stackIndex < 0 || stackIndex >= NUM_STACKS)
+         return 0;
+
+      return getHand(playerIndex).getCardMask() & stackMask[stackIndex];
+   }
+
+   /**
+    * Returns the cards of the player that can go on any of the stacks, as a
+    * bit mask of card codes (see Card.cardAsInt)
+    * 
+    * @param playerIndex the specified player
+    * @return bit mask of playable cards, 0 if there is none
+    */
+   public long getPlayableMask(int playerIndex)
+   {
+      long anyStack = 0;
+      for (int i = 0; i < NUM_STACKS; i++)
+         anyStack |= stackMask[i];
+
+      return getHand(playerIndex).getCardMask() & anyStack;
+   }
+
+   /**
+    * Checks if the player has at least one card that can be played
+    * 
+    * @param playerIndex the specified player
+    * @return true if there is a legal play
+    */
+   public boolean hasLegalPlay(int playerIndex)
+   {
+      return getPlayableMask(playerIndex) != 0;
+   }
+
+   /**
+    * Finds the first card of the player that can be placed on a stack,
+    * trying the stacks in order and the lowest card first
+    * 
+    * @param playerIndex the specified player
+    * @return cardIndex * NUM_STACKS + stackIndex, or -1 if there is no play
+    */
+   public int findFirstPlay(int playerIndex)
+   {
+      Hand playerHand = getHand(playerIndex);
+      for (int i = 0; i < NUM_STACKS; i++)
+      {
+         long playable = playerHand.getCardMask() & stackMask[i];
+         if (playable != 0)
+         {
+            Card card = Card.fromInt(Long.numberOfTrailingZeros(playable));
+            return playerHand.indexOf(card) * NUM_STACKS + i;
+         }
+      }
+      return -1;
+   }
+
+   /**
+    * Checks if the card can be placed on the specified stack
+    * 
+    * @param card       the card to be played
+    * @param stackIndex the specified stack
+    * @return true if the rank of the card is next to the stack card's rank
+    */
+   public boolean isLegalPlay(Card card, int stackIndex)
+   {
+      if (card == null || card.getErrorFlag() || stackIndex < 0
+         || stackIndex >= NUM_STACKS)
+         return false;
+
+      return (Card.cardMask(card) & stackMask[stackIndex]) != 0;
+   }
+
+   /**
+    * Returns the stacks the card can be placed on
+    * 
+    * @param card the card to be played
+    * @return bit i is set if the card can go on stack i
+    */
+   public int getTargetStacks(Card card)
+   {
+      if (card == null || card.getErrorFlag())
+         return 0;
+
+      int rank = Card.valueAsInt(card);
+      int targets = 0;
+      if (rank > 0)
+         targets |= stacksOfRank[rank - 1];
+      if (rank < Card.NUM_RANKS - 1)
+         targets |= stacksOfRank[rank + 1];
+      return targets;
+   }
+
+   // rank of the card on the stack, -1 if there is none
+   private int stackRank(int stackIndex)
+   {
+      Card card = stack[stackIndex];
+      if (card == null || card.getErrorFlag())
+         return -1;
+      return Card.valueAsInt(card);
+   }
+
+}
+
+/*-----------------------------------------------------
+ * End Of BuildEngine class
+ *----------------------------------------------*/
+
+/****************************************************************
+ * Card
+ * imported Card class 
+ ***************************************************************/
+class Card
+{
+   public enum Suit
+   {
+      CLUBS, DIAMONDS, HEARTS, SPADES
+   };
+
+   // card values
+   private final char value;
+   private final Suit suit;
+   public static char[] valuRanks =
+   { 'A', '2', '3', '4', '5', '6', '7', '8', '9', 'T', 'J', 'Q', 'K', 'X' };
+   public static final int NUM_RANKS = 14;
+   public static final int NUM_SUITS = 4;
+   // cardAsInt codes run from 0 to NUM_CARD_CODES - 1, so they fit a long
+   public static final int NUM_CARD_CODES = NUM_RANKS * NUM_SUITS;
+   // arraySort insertion sorts arrays up to this size
+   private static final int SMALL_SORT = 16;
+   // Suit.values() copies the array on every call, use this one instead
+   public static final Suit[] SUITS = Suit.values();
+
+   // Checks for illegal card data
+   private final boolean errorFlag;
+
+   // position in valuRanks and rank * 4 + suit, -1 for an error card
+   private final int rank;
+   private final int code;
+
+   // maps a value char straight to its position in valuRanks, -1 if invalid
+   private static final byte[] RANK_OF_VALUE = new byte[128];
+
+   // one canonical instance per rank/suit, plus one error card per suit
+   private static final Card[][] canonicalCards =
+      new Card[valuRanks.length][Suit.values().length];
+   private static final Card[] errorCards = new Card[Suit.values().length];
+
+   static
+   {
+      Arrays.fill(RANK_OF_VALUE, (byte) -1);
+      for (int i = 0; i < valuRanks.length; i++)
+         RANK_OF_VALUE[valuRanks[i]] = (byte) i;
+
+      for (Suit suit : Suit.values())
+      {
+         for (int i = 0; i < valuRanks.length; i++)
+            canonicalCards[i][suit.ordinal()] = new Card(valuRanks[i], suit,
+               false);
+         errorCards[suit.ordinal()] = new Card(' ', suit, true);
+      }
+   }
+
+   /**
+    * Private constructor, cards are only handed out through valueOf so that
+    * there is exactly one instance of each card
+    * 
+    * @param value
+    * @param suit
+    * @param errorFlag
+    */
+   private Card(char value, Suit suit, boolean errorFlag)
+   {
+      this.value = value;
+      this.suit = suit;
+      this.errorFlag = errorFlag;
+      this.rank = errorFlag ? -1 : rankOf(value);
+      this.code = errorFlag ? -1 : rank * NUM_SUITS + suit.ordinal();
+   }
+
+   /**
+    * Returns the canonical card for the given value and suit. Bad data gives
+    * back the canonical error card instead.
+    * 
+    * @param value
+    * @param suit
+    * @return the shared Card instance
+    */
+   public static Card valueOf(char value, Suit suit)
+   {
+      if (suit == null)
+         suit = Suit.SPADES;
+
+      if (!isValid(value))
+         return errorCards[suit.ordinal()];
+      return canonicalCards[rankOf(value)][suit.ordinal()];
+   }
+
+   /**
+    * Returns the position of a value in valuRanks
+    * 
+    * @param value
+    * @return the rank, -1 if the value is not valid
+    */
+   public static int rankOf(char value)
+   {
+      if (value >= RANK_OF_VALUE.length)
+         return -1;
+      return RANK_OF_VALUE[value];
+   }
+
+   // Determine validity for the value
+   public static boolean isValid(char value)
+   {
+      return rankOf(value) >= 0;
+   }
+
+   /**
+    * Returns the canonical card for an integer produced by cardAsInt
+    * 
+    * @param cardInt
+    * @return the shared Card instance, or the error card if out of range
+    */
+   public static Card fromInt(int cardInt)
+   {
+      if (cardInt < 0 || cardInt >= NUM_CARD_CODES)
+         return errorCard();
+      return canonicalCards[cardInt / NUM_SUITS][cardInt % NUM_SUITS];
+   }
+
+   /**
+    * Returns the canonical error card
+    * 
+    * @return a card with the error flag set
+    */
+   public static Card errorCard()
+   {
+      return errorCards[Suit.SPADES.ordinal()];
+   }
+
+   // Accessors
+   public Suit getSuit()
+   {
+      return suit;
+   }
+
+   public char getValue()
+   {
+      return value;
+   }
+
+   public boolean getErrorFlag()
+   {
+      return errorFlag;
+   }
+
+   // Valid card data returned
+   public String toString()
+   {
+      if (errorFlag)
+         return "[Card Not Valid]";
+      return value + " of " + suit;
+
+   }
+
+   // Returns true if all field members are identical, false otherwise
+   @Override
+   public boolean equals(Object other)
+   {
+      if (this == other)
+         return true;
+      if (!(other instanceof Card))
+         return false;
+
+      // comparing member values
+      Card card = (Card) other;
+      return this.value == card.value && this.suit == card.suit
+         && this.errorFlag == card.errorFlag;
+   }
+
+   @Override
+   public int hashCode()
+   {
+      if (errorFlag)
+         return -1 - suit.ordinal();
+      return code;
+   }
+
+   /**
+    * Sorts the first arraySize cards by cardAsInt. There are only
+    * NUM_CARD_CODES different cards, so this is a counting sort and runs in
+    * linear time. A handful of cards is just insertion sorted.
+    * 
+    * @param cArray    the valid cards to sort
+    * @param arraySize how many cards of the array to sort
+    */
+   public static void arraySort(Card[] cArray, int arraySize)
+   {
+      if (arraySize <= SMALL_SORT)
+      {
+         for (int i = 1; i < arraySize; i++)
+         {
+            Card temp = cArray[i];
+            int j = i - 1;
+            for (; j >= 0 && cardAsInt(cArray[j]) > cardAsInt(temp); j--)
+               cArray[j + 1] = cArray[j];
+            cArray[j + 1] = temp;
+         }
+         return;
+      }
+
+      int[] counts = new int[NUM_CARD_CODES];
+      for (int i = 0; i < arraySize; i++)
+         counts[cardAsInt(cArray[i])]++;
+
+      // cards are canonical, so writing them back in order is enough
+      int k = 0;
+      for (int code = 0; code < NUM_CARD_CODES; code++)
+         for (int n = counts[code]; n > 0; n--)
+            cArray[k++] = fromInt(code);
+   }
+
+   /**
+    * It returns an integer according to the value
+    * 
+    * @param card
+    * @return -1 if the value is not valid
+    */
+   public static int valueAsInt(Card card)
+   {
+      // precomputed when the canonical card was built
+      return card.rank;
+   }
+
+   /**
+    * It returns the suit position as an integer
+    * 
+    * @param card
+    * @return an integer
+    */
+   public static int suitAsInt(Card card)
+   {
+      return card.getSuit().ordinal();
+   }
+
+   /**
+    * It returns a specific integer for a card according to the value and the
+    * suit, i.e. valueAsInt * 4 + suitAsInt
+    * 
+    * @param card
+    * @return an integer for the card, -1 if the card is not valid
+    */
+   public static int cardAsInt(Card card)
+   {
+      return card.code;
+   }
+
+   /**
+    * Returns a bit mask with only the bit of the card set
+    * 
+    * @param card
+    * @return 1 shifted by cardAsInt, 0 for an invalid card
+    */
+   public static long cardMask(Card card)
+   {
+      if (card == null || card.getErrorFlag())
+         return 0;
+      return 1L << cardAsInt(card);
+   }
+
+   /**
+    * Returns a bit mask with the bits of all four suits of a rank set
+    * 
+    * @param rank the value as returned by valueAsInt
+    * @return the mask of the rank
+    */
+   public static long rankMask(int rank)
+   {
+      return 0xFL << (rank * NUM_SUITS);
+   }
+
+   /**
+    * Returns the lowest rank of the cards in a mask of card codes
+    * 
+    * @param mask bits set by cardMask
+    * @return the rank, -1 for an empty mask
+    */
+   public static int lowestRank(long mask)
+   {
+      if (mask == 0)
+         return -1;
+      return Long.numberOfTrailingZeros(mask) / NUM_SUITS;
+   }
+
+   /**
+    * Returns the highest rank of the cards in a mask of card codes
+    * 
+    * @param mask bits set by cardMask
+    * @return the rank, -1 for an empty mask
+    */
+   public static int highestRank(long mask)
+   {
+      if (mask == 0)
+         return -1;
+      return (63 - Long.numberOfLeadingZeros(mask)) / NUM_SUITS;
+   }
+
+   /**
+    * Returns a bit mask with the bits of every rank below the given one set
+    * 
+    * @param rank the value as returned by valueAsInt
+    * @return the mask of the lower ranks
+    */
+   public static long belowRankMask(int rank)
+   {
+      return (1L << (rank * NUM_SUITS)) - 1;
+   }
+}
+
+/*-----------------------------------------------------
+ * End Of Card
+ *----------------------------------------------/
+ /****************************************************************
+ * Hand 
+ * imported Hand class 
+ ***************************************************************/
+class Hand
+{
+   // room for this many cards at first, the hand grows when it is full
+   private static final int INITIAL_CARDS = 16;
+
+   // the cards as their Card.cardAsInt codes
+   private byte[] myCards;
+   private int numCards;
+
+   // bit (rank * 4 + suit) is set while at least one such card is held,
+   // the counts keep track of duplicates in multi-pack decks
+   private long cardMask;
+   private byte[] cardCounts = new byte[Card.NUM_CARD_CODES];
+
+   // when set, the cards are always kept in ascending order
+   private boolean keepSorted = false;
+
+   // position index: slotsOfRank[rank] lists the first rankCounts[rank]
+   // positions holding a card of that rank, in no particular order, and
+   // slotIndex[position] is the position's place in that list. It is built
+   // the first time it is needed and kept up on every take and play from
+   // then on. Sliding cards around invalidates it until it is needed again,
+   // so hands that are never asked cost nothing extra.
+   private int[] rankCounts = new int[Card.NUM_RANKS];
+   private int[][] slotsOfRank = new int[Card.NUM_RANKS][Card.NUM_SUITS];
+   private int[] slotIndex;
+   private boolean positionsValid = false;
+
+   // Constructor
+   public Hand()
+   {
+      myCards = new byte[INITIAL_CARDS];
+      slotIndex = new int[INITIAL_CARDS];
+      numCards = 0;
+   }
+
+   // Copy constructor
+   public Hand(Hand other)
+   {
+      this();
+      copyFrom(other);
+   }
+
+   /**
+    * Makes this hand hold the same cards in the same order as the other one
+    * 
+    * @param other the hand to copy
+    */
+   public void copyFrom(Hand other)
+   {
+      if (myCards.length < other.numCards)
+      {
+         myCards = new byte[other.myCards.length];
+         slotIndex = new int[myCards.length];
+      }
+      System.arraycopy(other.myCards, 0, myCards, 0, other.numCards);
+      System.arraycopy(other.cardCounts, 0, cardCounts, 0,
+         Card.NUM_CARD_CODES);
+      numCards = other.numCards;
+      cardMask = other.cardMask;
+      keepSorted = other.keepSorted;
+      positionsValid = false;
+   }
+
+   /**
+    * resets hand
+    */
+   public void resetHand()
+   {
+      numCards = 0;
+      cardMask = 0;
+      Arrays.fill(cardCounts, (byte) 0);
+      positionsValid = false; // built when it is first needed
+   }
+
+   /**
+    * Adds a card to the next available position
+    * 
+    * @param card
+    * @return boolean
+    */
+   public boolean takeCard(Card card)
+   {
+      if (card != null && !card.getErrorFlag())
+      {
+         if (numCards == myCards.length)
+         {
+            myCards = Arrays.copyOf(myCards, myCards.length * 2);
+            slotIndex = Arrays.copyOf(slotIndex, myCards.length);
+         }
+
+         int code = Card.cardAsInt(card);
+         if (keepSorted)
+         {
+            // slide the higher cards up to make room at the sorted position
+            int spot = countBelow(code) + cardCounts[code];
+            System.arraycopy(myCards, spot, myCards, spot + 1, numCards
+               - spot);
+            myCards[spot] = (byte) code;
+            if (spot < numCards)
+               positionsValid = false;
+            linkSlot(spot);
+         }
+         else
+         {
+            myCards[numCards] = (byte) code;
+            linkSlot(numCards);
+         }
+         numCards++;
+
+         cardCounts[code]++;
+         cardMask |= 1L << code;
+         return true;
+      }
+      return false;
+   }
+
+   // stringifies the hand
+   public String toString()
+   {
+      String myHand = "";
+      if (numCards > 0)
+      {
+
+         myHand += inspectCard(0);
+         for (int i = 1; i < numCards; i++)
+         {
+            myHand += " , " + inspectCard(i);
+         }
+
+      }
+      return "Hand = " + "(" + myHand + ")";
+   }
+
+   // Accessor
+   public int getNumCards()
+   {
+      return numCards;
+   }
+
+   // Accessor
+   public Card inspectCard(int k)
+   {
+
+      if (k >= 0 && k < numCards) // assume valid k starts from 0
+      {
+         // hands out the shared canonical card
+         return Card.fromInt(myCards[k]);
+      }
+
+      // return a dummy invalid card
+      return Card.errorCard();
+
+   }
+
+   /**
+    * Sort the cards in the hand in ascending order
+    */
+   public void sort()
+   {
+      if (keepSorted)
+         return; // already in order
+
+      // counting sort straight from the counts the hand keeps anyway
+      int k = 0;
+      for (long bits = cardMask; bits != 0; bits &= bits - 1)
+      {
+         int code = Long.numberOfTrailingZeros(bits);
+         for (int n = cardCounts[code]; n > 0; n--)
+            myCards[k++] = (byte) code;
+      }
+
+      // every position changed
+      positionsValid = false;
+   }
+
+   /**
+    * Turns the always sorted mode on or off. While on, takeCard puts each
+    * card at its sorted position and sort has nothing left to do.
+    * 
+    * @param keepSorted true to keep the cards in ascending order
+    */
+   public void setKeepSorted(boolean keepSorted)
+   {
+      if (keepSorted && !this.keepSorted)
+         sort();
+      this.keepSorted = keepSorted;
+   }
+
+   // number of cards in the hand with a lower code
+   private int countBelow(int code)
+   {
+      int below = 0;
+      for (long bits = cardMask & ((1L << code) - 1); bits != 0;
+         bits &= bits - 1)
+         below += cardCounts[Long.numberOfTrailingZeros(bits)];
+      return below;
+   }
+
+   /**
+    * Return a card on the top of the hand
+    * 
+    * @return a good card if there is any
+    */
+   public Card playCard()
+   {
+      if (numCards > 0)
+      {
+         numCards--;
+         unlinkSlot(numCards);
+         forget(myCards[numCards]);
+         return Card.fromInt(myCards[numCards]);
+      }
+
+      // No more cards, return a card that does not work
+      return Card.errorCard();
+
+   }
+
+   /**
+    * Remove a card from the given location and slide down cards behind down one
+    * spot
+    * 
+    * @param cardIndex the location where the card is removed from the hand
+    * @return the card at the given location or a bad card if location is
+    *         invalid
+    */
+   public Card playCard(int cardIndex)
+   {
+      if (cardIndex < 0 || cardIndex >= numCards) // out of bound error
+      {
+         // Returns a card that does not work
+         return Card.errorCard();
+      }
+      // Decreases numCards.
+      int code = myCards[cardIndex];
+      unlinkSlot(cardIndex);
+      numCards--;
+      forget(code);
+
+      // Slide down cards that followed down one spot
+      System.arraycopy(myCards, cardIndex + 1, myCards, cardIndex, numCards
+         - cardIndex);
+      if (cardIndex < numCards)
+         positionsValid = false;
+
+      return Card.fromInt(code);
+   }
+
+   /**
+    * Remove a card from the given location and move the last card into its
+    * spot. Constant time, but the order of the hand changes, so use it for
+    * hands that are not shown face up. A hand kept sorted slides instead.
+    * 
+    * @param cardIndex the location where the card is removed from the hand
+    * @return the card at the given location or a bad card if location is
+    *         invalid
+    */
+   public Card playCardBySwap(int cardIndex)
+   {
+      if (cardIndex < 0 || cardIndex >= numCards) // out of bound error
+      {
+         // Returns a card that does not work
+         return Card.errorCard();
+      }
+      if (keepSorted)
+         return playCard(cardIndex);
+
+      int code = myCards[cardIndex];
+      unlinkSlot(cardIndex);
+      numCards--;
+      forget(code);
+
+      // the last card takes over the spot
+      myCards[cardIndex] = myCards[numCards];
+      if (cardIndex != numCards)
+         moveSlot(numCards, cardIndex);
+
+      return Card.fromInt(code);
+   }
+
+   /**
+    * Removes a card of the given rank, see playCardBySwap
+    * 
+    * @param rank the rank, see Card.valueAsInt
+    * @return the card removed or a bad card if there is none of that rank
+    */
+   public Card playCardOfRank(int rank)
+   {
+      if (rank < 0 || rank >= Card.NUM_RANKS || getRankCount(rank) == 0)
+         return Card.errorCard();
+
+      return playCardBySwap(getRankPosition(rank, getRankCount(rank) - 1));
+   }
+
+   /**
+    * Returns how many cards of the given rank are in the hand
+    * 
+    * @param rank the rank, see Card.valueAsInt
+    * @return the number of cards
+    */
+   public int getRankCount(int rank)
+   {
+      if (positionsValid)
+         return rankCounts[rank];
+
+      // the index is not kept up while it is invalid, add up the suits
+      int count = 0;
+      for (int code = rank * Card.NUM_SUITS; code < (rank + 1)
+         * Card.NUM_SUITS; code++)
+         count += cardCounts[code];
+      return count;
+   }
+
+   /**
+    * Returns where a card of the given rank is, the cards of one rank are in
+    * no particular order
+    * 
+    * @param rank the rank, see Card.valueAsInt
+    * @param n    which of the getRankCount(rank) cards
+    * @return the location of the card in the hand
+    */
+   public int getRankPosition(int rank, int n)
+   {
+      if (!positionsValid)
+         rebuildPositions();
+      return slotsOfRank[rank][n];
+   }
+
+   /**
+    * Returns the location of the card in the hand
+    * 
+    * @param card the card to look for
+    * @return the first location holding the card, -1 if it is not in the hand
+    */
+   public int indexOf(Card card)
+   {
+      if ((Card.cardMask(card) & cardMask) == 0)
+         return -1;
+
+      byte code = (byte) Card.cardAsInt(card);
+      if (!positionsValid)
+      {
+         // a scan is cheaper than rebuilding the index
+         for (int i = 0; i < numCards; i++)
+         {
+            if (myCards[i] == code)
+               return i;
+         }
+         return -1;
+      }
+
+      // only the cards of the same rank need to be looked at
+      int rank = Card.valueAsInt(card);
+      int first = -1;
+      for (int n = 0; n < rankCounts[rank]; n++)
+      {
+         int i = slotsOfRank[rank][n];
+         if (myCards[i] == code && (first < 0 || i < first))
+            first = i;
+      }
+      return first;
+   }
+
+   /**
+    * Returns the cards held as a bit mask of card codes (see Card.cardAsInt)
+    * 
+    * @return the mask of the cards in the hand
+    */
+   public long getCardMask()
+   {
+      return cardMask;
+   }
+
+   /**
+    * Returns the lowest rank in the hand without looking at the cards, the
+    * mask is kept up with every card taken or played
+    * 
+    * @return the rank, -1 if the hand is empty
+    */
+   public int getLowestRank()
+   {
+      return Card.lowestRank(cardMask);
+   }
+
+   /**
+    * Returns the highest rank in the hand, see getLowestRank
+    * 
+    * @return the rank, -1 if the hand is empty
+    */
+   public int getHighestRank()
+   {
+      return Card.highestRank(cardMask);
+   }
+
+   /**
+    * Returns how many copies of the card are in the hand
+    * 
+    * @param card
+    * @return the number of copies
+    */
+   public int getCardCount(Card card)
+   {
+      if (card == null || card.getErrorFlag())
+         return 0;
+      return cardCounts[Card.cardAsInt(card)];
+   }
+
+   // updates the counts and the mask for a card code leaving the hand
+   private void forget(int code)
+   {
+      if (--cardCounts[code] == 0)
+         cardMask &= ~(1L << code);
+   }
+
+   // adds the card at the given position to the index
+   private void linkSlot(int position)
+   {
+      if (positionsValid)
+      {
+         int rank = myCards[position] / Card.NUM_SUITS;
+         int[] slots = slotsOfRank[rank];
+         int n = rankCounts[rank]++;
+         if (n == slots.length)
+            slots = growRank(rank);
+         slots[n] = position;
+         slotIndex[position] = n;
+      }
+   }
+
+   // drops the card at the given position from the index
+   private void unlinkSlot(int position)
+   {
+      if (positionsValid)
+      {
+         int rank = myCards[position] / Card.NUM_SUITS;
+         rankCounts[rank]--;
+         // the last position of the list takes the place of the removed one
+         int last = slotsOfRank[rank][rankCounts[rank]];
+         slotsOfRank[rank][slotIndex[position]] = last;
+         slotIndex[last] = slotIndex[position];
+      }
+   }
+
+   // the card at position from now sits at position to
+   private void moveSlot(int from, int to)
+   {
+      if (positionsValid)
+      {
+         int rank = myCards[to] / Card.NUM_SUITS;
+         slotsOfRank[rank][slotIndex[from]] = to;
+         slotIndex[to] = slotIndex[from];
+      }
+   }
+
+   // makes room for more cards of the rank, in multi-pack hands
+   private int[] growRank(int rank)
+   {
+      slotsOfRank[rank] = Arrays.copyOf(slotsOfRank[rank],
+         slotsOfRank[rank].length * 2);
+      return slotsOfRank[rank];
+   }
+
+   // rebuilds the position index from the cards
+   private void rebuildPositions()
+   {
+      Arrays.fill(rankCounts, 0);
+      positionsValid = true;
+      for (int i = 0; i < numCards; i++)
+         linkSlot(i);
+   }
+
+}
+/*-----------------------------------------------------
+ * End Of Hand
+ *----------------------------------------------/
+ /****************************************************************
+ * Deck import
+ * imported Deck class
+ ***************************************************************/
+
+class Deck
+{
+   // playing card pack values
+   public static final int MAX_CARDS = 312; // 6 packs x 52 cards
+   public static final int ONE_PACK = 52; // standard 52 cards
+   public static boolean beenHereBefore = false;
+
+   // creates a new object with one pack of cards
+   private static Card[] masterPack = new Card[ONE_PACK];
+
+   private Card[] cards; // cards in the deck
+   private int topCard; // keep track of number of cards in the deck
+   private int numPacks; // keep track of number of packs in the deck
+
+   // reused by every shuffle, each deck gets its own independent stream
+   private RandomGenerator random = new SplittableRandom();
+
+   // in lazy mode shuffle only sets shufflePending and each dealCard does
+   // the one Fisher-Yates step that picks the card it hands out
+   private boolean lazyShuffle = false;
+   private boolean shufflePending = false;
+
+   // how many copies of each card code are in the deck
+   private int[] cardCounts = new int[Card.NUM_CARD_CODES];
+
+   // position index: slotsOfCard[code] lists the first cardCounts[code]
+   // slots holding that card, slotIndex[slot] is the slot's place in that
+   // list. Shuffling and sorting invalidate it, it is rebuilt when needed.
+   private int[][] slotsOfCard;
+   private int[] slotIndex;
+   private boolean positionsValid = false;
+
+   /**
+    * Constructor that takes in a number of packs as an argument and then
+    * creates a deck of cards with that many packs of cards (56 x numPacks)
+    * 
+    * @param numPacks
+    */
+   public Deck(int numPacks)
+   {
+      // maximum packs is 6
+      if ((numPacks * ONE_PACK) > MAX_CARDS)
+         numPacks = 6;
+
+      this.numPacks = numPacks;
+
+      allocateMasterPack();
+
+      // create the cards array with (52+4) x numPacks cards
+      // standard is 52 cards but possible add 4 jokers per pack
+      cards = new Card[numPacks * (ONE_PACK + 4)];
+
+      // a deck never holds more than numPacks copies of a card
+      slotsOfCard = new int[Card.NUM_CARD_CODES][numPacks];
+      slotIndex = new int[cards.length];
+
+      // populate the cards in the deck
+      init(numPacks);
+   }
+
+   /*
+    * Overloaded no argument constructor that creates a pack of cards using just
+    * one deck
+    */
+   public Deck()
+   {
+      // one pack of cards with room for 4 jokers
+      this(1);
+   }
+
+   /**
+    * Makes this deck hold the same cards in the same order as the other one,
+    * with the same shuffle settings. The random number generator is not
+    * copied.
+    * 
+    * @param other the deck to copy
+    */
+   public void copyFrom(Deck other)
+   {
+      if (cards.length < other.cards.length)
+      {
+         cards = new Card[other.cards.length];
+         slotsOfCard = new int[Card.NUM_CARD_CODES][other.numPacks];
+         slotIndex = new int[cards.length];
+      }
+      System.arraycopy(other.cards, 0, cards, 0, other.topCard);
+      if (topCard > other.topCard)
+         Arrays.fill(cards, other.topCard, topCard, null);
+      System.arraycopy(other.cardCounts, 0, cardCounts, 0,
+         Card.NUM_CARD_CODES);
+
+      topCard = other.topCard;
+      numPacks = other.numPacks;
+      lazyShuffle = other.lazyShuffle;
+      shufflePending = other.shufflePending;
+      positionsValid = false;
+   }
+
+   /**
+    * Method to re-populate cards[] with 52 x numPacks cards.
+    * 
+    * @param numPacks
+    */
+   public void init(int numPacks)
+   {
+
+      // Initialize the last index of the array to be the top card of the deck
+      topCard = numPacks * ONE_PACK; // no jokers that can be added when needed
+
+      this.numPacks = numPacks;
+      shufflePending = false;
+
+      // every card of a pack once per pack, no jokers yet
+      Arrays.fill(cardCounts, 0);
+      for (int i = 0; i < ONE_PACK; i++)
+         cardCounts[i] = numPacks;
+
+      // Populate the card array with Card objects, copying values from
+      // masterPack
+      for (int masterCounter = 0, i = 0; i < topCard; i++, masterCounter++)
+      {
+         // Share the canonical Card from the masterPack, the masterPack is
+         // in cardAsInt order so its index is also the card code
+         cards[i] = masterPack[masterCounter];
+         slotsOfCard[masterCounter][i / ONE_PACK] = i;
+         slotIndex[i] = i / ONE_PACK;
+
+         // If the cards array is more than one pack, reset the index of
+         // masterPack
+         // in order to loop through it again
+         if (masterCounter == ONE_PACK - 1)
+            masterCounter = -1;
+      }
+      positionsValid = true;
+   }
+
+   /**
+    * Replaces the random number generator used by shuffle, e.g. to get a
+    * repeatable deal from a seeded generator
+    * 
+    * @param random the generator to use from now on
+    */
+   public void setRandom(RandomGenerator random)
+   {
+      if (random != null)
+         this.random = random;
+   }
+
+   /**
+    * Turns lazy shuffling on or off. In lazy mode the work of a shuffle is
+    * spread over the following dealCard calls, so cards that are never dealt
+    * are never shuffled. The cards dealt come out in the same random order
+    * as with a full shuffle.
+    * 
+    * @param lazyShuffle true to shuffle on demand
+    */
+   public void setLazyShuffle(boolean lazyShuffle)
+   {
+      if (!lazyShuffle)
+         finishShuffle();
+      this.lazyShuffle = lazyShuffle;
+   }
+
+   /**
+    * Shuffles the deck of Cards (Fisher-Yates), every order of the cards
+    * currently in the deck is equally likely
+    */
+   public void shuffle()
+   {
+      if (lazyShuffle)
+      {
+         // dealCard does the work one card at a time
+         shufflePending = true;
+         return;
+      }
+
+      shufflePending = true;
+      finishShuffle();
+   }
+
+   /**
+    * Completes a pending lazy shuffle now, on every card still in the deck,
+    * so that the order of the cards is fixed
+    */
+   public void finishShuffle()
+   {
+      if (!shufflePending)
+         return;
+      shufflePending = false;
+      positionsValid = false;
+
+      Card tempCard;
+      int randCard;
+
+      // loops from the top of the deck down to the second card
+      for (int x = topCard - 1; x > 0; x--)
+      {
+         // Picks a random card from the part not yet shuffled
+         randCard = random.nextInt(x + 1);
+         // assigns the random card to a placeholder
+         tempCard = cards[randCard];
+         // assigns the random card to the next card in the deck
+         cards[randCard] = cards[x];
+         // assigns the next card in the deck to the card in
+         // the place holder
+         cards[x] = tempCard;
+      }
+   }
+
+   /**
+    * Deals a card by taking the top of the deck and makes sure there are still
+    * cards available.
+    * 
+    * @return the top Card from the deck.
+    */
+   public Card dealCard()
+   {
+      Card dealCard;
+
+      // checks if there are cards in the deck
+      if (topCard > 0)
+      {
+         if (shufflePending)
+         {
+            // lazy shuffle: swap a random remaining card onto the top,
+            // exactly the step a full shuffle would have done for it
+            int randCard = random.nextInt(topCard);
+            Card tempCard = cards[randCard];
+            cards[randCard] = cards[topCard - 1];
+            cards[topCard - 1] = tempCard;
+            swapSlots(randCard, topCard - 1);
+         }
+
+         // assigns the top card to the dealCard variable
+         dealCard = cards[topCard - 1];
+         unlinkSlot(topCard - 1);
+
+         // removes the topcard from the deck
+         cards[topCard - 1] = null;
+
+         // decreases card count
+         topCard--;
+         return dealCard;
+      }
+      // returns null if no more cards
+      return null;
+   }
+
+   /**
+    * Returns the number of cards in a deck.
+    * 
+    * @return the number of cards in the deck
+    */
+   public int getTopCard()
+   {
+      return topCard;
+   }
+
+   /**
+    * Accessor for an individual card. Returns a card or returns a card with an
+    * error flag.
+    * 
+    * @return the card at index k
+    * @return a card with with an error flag
+    */
+   public Card inspectCard(int k)
+   {
+      Card returnCard;
+
+      // the order is only defined once the shuffle is done
+      finishShuffle();
+
+      // If k is out of bounds, return a card with an error flag
+      if (k < 0 || k >= topCard)
+      {
+         // Return the invalid card with errorFlag = true
+         returnCard = Card.errorCard();
+      }
+      else
+      {
+         // Otherwise return the card at k index
+         returnCard = cards[k];
+      }
+      return returnCard;
+   }
+
+   /**
+    * This method creates new cards and fills the masterPack.
+    */
+   private static void allocateMasterPack()
+   {
+      // Check if this method has already been run. Return if it has.
+      if (beenHereBefore)
+         return;
+
+      char[] value =
+      { 'A', '2', '3', '4', '5', '6', '7', '8', '9', 'T', 'J', 'Q', 'K' };
+
+      Card.Suit[] suits =
+      { Card.Suit.CLUBS, Card.Suit.DIAMONDS, Card.Suit.HEARTS,
+         Card.Suit.SPADES };
+
+      int curIndex = 0;
+
+      // Loop through the value array
+      for (int x = 0; x < value.length; x++)
+      {
+         // Loop through the suits array
+         for (int y = 0; y < suits.length; y++)
+         {
+            // Look up the canonical Card with the correct suit and value
+            masterPack[curIndex] = Card.valueOf(value[x], suits[y]);
+            curIndex++;
+         }
+      }
+
+      beenHereBefore = true;
+   }
+
+   /**
+    * Adds the card to the top of the deck if there aren't too many instances
+    * 
+    * @param card the card to be added
+    * @return false if the card is already there or no rooms, otherwise return
+    *         true
+    */
+   public boolean addCard(Card card)
+   {
+      if (cards.length == topCard || card == null || card.getErrorFlag())
+      {
+         return false; // no room for the card
+      }
+
+      if (getCardCount(card) < numPacks)
+      {
+         // number of instances not exceeding the numPacks
+         cards[topCard] = card; // add the card to the deck
+         linkSlot(topCard);
+         topCard++;
+         return true;
+      }
+      return false;
+   }
+
+   /**
+    * Remove one instance of a specific card from the deck
+    * 
+    * @param card the specific card
+    * @return true if success, otherwise false
+    */
+   public boolean removeCard(Card card)
+   {
+      if (getCardCount(card) == 0)
+         return false;
+
+      if (!positionsValid)
+         rebuildPositions();
+
+      // remove only one instance of the card, the top card fills the gap
+      int code = Card.cardAsInt(card);
+      int i = slotsOfCard[code][cardCounts[code] - 1];
+      unlinkSlot(i);
+      if (i != topCard - 1)
+      {
+         cards[i] = cards[topCard - 1];
+         moveSlot(topCard - 1, i);
+      }
+      cards[topCard - 1] = null;
+      topCard--;
+      return true;
+   }
+
+   /**
+    * Returns how many copies of the card are in the deck
+    * 
+    * @param card
+    * @return the number of copies
+    */
+   public int getCardCount(Card card)
+   {
+      if (card == null || card.getErrorFlag())
+         return 0;
+      return cardCounts[Card.cardAsInt(card)];
+   }
+
+   // counts the card in the given slot and adds the slot to the index
+   private void linkSlot(int slot)
+   {
+      int code = Card.cardAsInt(cards[slot]);
+      if (positionsValid)
+      {
+         slotsOfCard[code][cardCounts[code]] = slot;
+         slotIndex[slot] = cardCounts[code];
+      }
+      cardCounts[code]++;
+   }
+
+   // uncounts the card in the given slot and drops the slot from the index
+   private void unlinkSlot(int slot)
+   {
+      int code = Card.cardAsInt(cards[slot]);
+      cardCounts[code]--;
+      if (positionsValid)
+      {
+         // the last slot of the list takes the place of the removed one
+         int last = slotsOfCard[code][cardCounts[code]];
+         slotsOfCard[code][slotIndex[slot]] = last;
+         slotIndex[last] = slotIndex[slot];
+      }
+   }
+
+   // the card in slot from now sits in slot to
+   private void moveSlot(int from, int to)
+   {
+      if (positionsValid)
+      {
+         int code = Card.cardAsInt(cards[to]);
+         slotsOfCard[code][slotIndex[from]] = to;
+         slotIndex[to] = slotIndex[from];
+      }
+   }
+
+   // the cards in slots a and b have just been swapped
+   private void swapSlots(int a, int b)
+   {
+      if (positionsValid && a != b)
+      {
+         int indexOfA = slotIndex[b]; // the card now in a came from b
+         int indexOfB = slotIndex[a];
+         slotsOfCard[Card.cardAsInt(cards[a])][indexOfA] = a;
+         slotsOfCard[Card.cardAsInt(cards[b])][indexOfB] = b;
+         slotIndex[a] = indexOfA;
+         slotIndex[b] = indexOfB;
+      }
+   }
+
+   // rebuilds the position index from the cards, counts stay the same
+   private void rebuildPositions()
+   {
+      int[] filled = new int[Card.NUM_CARD_CODES];
+      for (int i = 0; i < topCard; i++)
+      {
+         int code = Card.cardAsInt(cards[i]);
+         slotsOfCard[code][filled[code]] = i;
+         slotIndex[i] = filled[code]++;
+      }
+      positionsValid = true;
+   }
+
+   public void sort()
+   {
+      // sorting makes any pending shuffle pointless
+      shufflePending = false;
+      positionsValid = false;
+
+      // counting sort straight from the per-card counts
+      int k = 0;
+      for (int code = 0; code < Card.NUM_CARD_CODES; code++)
+         for (int n = cardCounts[code]; n > 0; n--)
+            cards[k++] = Card.fromInt(code);
+   }
+
+   public int getNumCards()
+   {
+      return topCard;
+   }
+}
+/*-----------------------------------------------------
+ * End Of Deck
+ *----------------------------------------------*/
@@ -1,37 +1,40 @@
-import java.util.Random;
 import javax.swing.*;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.MediaTracker;
+import java.awt.Transparency;
+import java.awt.Window;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import java.util.zip.InflaterInputStream;
 
 /****************************************************************
  * BuildModel
  * 
  * Description: Creates the model for a game called "BUILD" Usage: Manages the
- * data of the card game
+ * data of the card game, the rules are in BuildEngine and this class adds
+ * the card icons for the view
  *****************************************************************/
 
-public class BuildModel
+public class BuildModel extends BuildEngine
 {
-   private static final int MAX_PLAYERS = 50;
-   private static final int NUM_STACKS = 3; // only 3 stacks for the game
-
-   private int numPlayers;
-   private int numPacks; // # standard 52-card packs per deck
-
-   private int numJokersPerPack; // if 2 per pack & 3 packs per deck, get 6
-   private int numUnusedCardsPerPack; // # cards removed from each pack
-   private int numCardsPerHand; // # cards to deal each player
-   private Card[] unusedCardsPerPack; // an array holding the cards not used
-
-   private Deck deck; // holds the initial full deck and gets
-
-   // smaller (usually) during play
-   private Hand[] hand; // one Hand for each player
-   public Card[] stack = new Card[NUM_STACKS];
-
-   // Variables to keep track of winnings
-   private int computerScore = 0;
-   private int humanScore = 0;
-   private boolean deckExhausted = false;
-
    /**
     * Constructor that takes arguments to create a new game
     * 
@@ -46,40 +49,8 @@ public class BuildModel
       int numUnusedCardsPerPack, Card[] unusedCardsPerPack, int numPlayers,
       int numCardsPerHand)
    {
-
-      int k;
-      // filter bad values
-      if (numPacks < 1 || numPacks > 6)
-         numPacks = 1;
-      if (numJokersPerPack < 0 || numJokersPerPack > 4)
-         numJokersPerPack = 0;
-      if (numUnusedCardsPerPack < 0 || numUnusedCardsPerPack > 50) // > 1 card
-         numUnusedCardsPerPack = 0;
-      if (numPlayers < 1 || numPlayers > MAX_PLAYERS)
-         numPlayers = 4;
-      // one of many ways to assure at least one full deal to all players
-      if (numCardsPerHand < 1 || numCardsPerHand > numPacks * (52
-         - numUnusedCardsPerPack) / numPlayers)
-         numCardsPerHand = numPacks * (52 - numUnusedCardsPerPack) / numPlayers;
-
-      // allocate
-      this.unusedCardsPerPack = new Card[numUnusedCardsPerPack];
-      this.hand = new Hand[numPlayers];
-      for (k = 0; k < numPlayers; k++)
-         this.hand[k] = new Hand();
-      deck = new Deck(numPacks);
-
-      // assign to members
-      this.numPacks = numPacks;
-      this.numJokersPerPack = numJokersPerPack;
-      this.numUnusedCardsPerPack = numUnusedCardsPerPack;
-      this.numPlayers = numPlayers;
-      this.numCardsPerHand = numCardsPerHand;
-      for (k = 0; k < numUnusedCardsPerPack; k++)
-         this.unusedCardsPerPack[k] = unusedCardsPerPack[k];
-
-      // prepare deck and shuffle
-      initGame();
+      super(numPacks, numJokersPerPack, numUnusedCardsPerPack,
+         unusedCardsPerPack, numPlayers, numCardsPerHand);
    }
 
    /**
@@ -93,96 +64,16 @@ public class BuildModel
    }
 
    /**
-    * Loads all the card icons to be used later and deals cards to each hand and
-    * the stacks
+    * Starts loading the card icons in the background and deals cards to each
+    * hand and the stacks
     */
    public void startNewGame()
    {
-      GUICard.loadCardIcons();
+      GUICard.preloadCardIcons();
       dealToHand(); // deal cards to hands
       dealToStack(); // deal cards to the stacks
    }
 
-   /**
-    * start a new deck and reset hands. Shuffle the deck.
-    */
-   public void initGame()
-   {
-      int k, j;
-
-      // clear the hands
-      for (k = 0; k < numPlayers; k++)
-         hand[k].resetHand();
-
-      // restock the deck
-      deck.init(numPacks);
-
-      // remove unused cards
-      for (k = 0; k < numUnusedCardsPerPack; k++)
-         deck.removeCard(unusedCardsPerPack[k]);
-
-      // add jokers
-      for (k = 0; k < numPacks; k++)
-         for (j = 0; j < numJokersPerPack; j++)
-            deck.addCard(new Card('X', Card.Suit.values()[j]));
-
-      // shuffle the cards
-      deck.shuffle();
-   }
-
-   /**
-    * deal the specified number of cards to each hand
-    * 
-    * @return true if successful, false if not enough cards
-    */
-   public boolean dealToHand()
-   {
-      // returns false if not enough cards, but deals what it can
-      int k, j;
-      boolean enoughCards;
-
-      // clear all hands
-      for (j = 0; j < numPlayers; j++)
-         hand[j].resetHand();
-
-      enoughCards = true;
-      for (k = 0; k < numCardsPerHand && enoughCards; k++)
-      {
-         for (j = 0; j < numPlayers; j++)
-            if (deck.getNumCards() > 0)
-               hand[j].takeCard(deck.dealCard());
-            else
-            {
-               enoughCards = false;
-               break;
-            }
-      }
-      return enoughCards;
-   }
-
-   /**
-    * Deal cards to each stack
-    * 
-    * @return true if successful, false if not enough cards
-    */
-   public boolean dealToStack()
-   {
-      for (int i = 0; i < NUM_STACKS; i++)
-      {
-         if (deck.getNumCards() > 0)
-         {
-            stack[i] = deck.dealCard();
-         }
-         else
-         {
-            // set the exhausted flag since no more cards in the deck
-            deckExhausted = true;
-            return false;
-         }
-      }
-      return true;
-   }
-
    /**
     * Retrieves all the icons associated with the player's current hand
     * 
@@ -207,6 +98,7 @@ public class BuildModel
    public Icon[] loadStackIcons()
    {
       Icon[] stackIcons = new Icon[NUM_STACKS];
+      Card[] stack = getStack();
 
       for (int i = 0; i < NUM_STACKS; i++)
       {
@@ -226,119 +118,6 @@ public class BuildModel
       return GUICard.getBackCardIcon();
    }
 
-   /**
-    * Play the indicated card for the specified player
-    * 
-    * @param playerIndex the index to which player
-    * @param cardIndex   the index of the card in player's hand
-    * @return the card from the player's as indicated
-    */
-   public Card playCard(int playerIndex, int cardIndex)
-   {
-      // returns bad card if either argument is bad
-      if (playerIndex < 0 || playerIndex > numPlayers - 1 || cardIndex < 0
-         || cardIndex > numCardsPerHand - 1)
-      {
-         // Creates a card that does not work
-         return new Card('M', Card.Suit.SPADES);
-      }
-
-      // return the card played
-      return hand[playerIndex].playCard(cardIndex);
-
-   }
-
-   /**
-    * deal a card from the deck to the specified player
-    * 
-    * @param playerIndex the specified player
-    * @return true if successful, false if deck is empty
-    */
-   public boolean takeCard(int playerIndex)
-   {
-      // returns false if either argument is bad
-      if (playerIndex < 0 || playerIndex > numPlayers - 1)
-         return false;
-
-      // Are there enough Cards?
-      if (deck.getNumCards() <= 0)
-      {
-         // deck is empty, set the flag
-         deckExhausted = true;
-         return false;
-      }
-      // deck is not empty, deal a card to player
-      return hand[playerIndex].takeCard(deck.dealCard());
-   }
-
-   /**
-    * Checks if the game is over by checking if the flag is set
-    * 
-    * @return true if the game is over
-    */
-   public boolean isGameOver()
-   {
-      if (deckExhausted)
-      {
-         return true;
-      }
-      return false;
-   }
-
-   /**
-    * Increment the score counter of the specified player
-    * 
-    * @param playerIndex the specified player
-    */
-   public void addScore(int playerIndex)
-   {
-      if (playerIndex == 0)
-         computerScore++; // increment the computer score
-
-      else if (playerIndex == 1)
-         humanScore++; // increment the human score
-   }
-
-   /**
-    * Retrieves the specified player's total score
-    * 
-    * @param playerIndex the specified player
-    * @return the player's score
-    */
-   public int getPlayerScore(int playerIndex)
-   {
-      // Check who won
-      if (playerIndex == 0)
-         return computerScore; // score of computer
-
-      else if (playerIndex == 1)
-         return humanScore; // score of the human
-
-      else
-         return -1; // If input is incorrect
-   }
-
-   /**
-    * Sort the hands of each player
-    */
-   public void sortHands()
-   {
-      int k;
-
-      for (k = 0; k < numPlayers; k++)
-         hand[k].sort();
-   }
-
-   /**
-    * Sorts the specified player's hand
-    * 
-    * @param playerIndex the specified player
-    */
-   public void sortHand(int playerIndex)
-   {
-      getHand(playerIndex).sort();
-   }
-
    /**
     * Retrieves the Icon for the specified Card
     * 
@@ -350,98 +129,6 @@ public class BuildModel
       return GUICard.getIcon(card);
    }
 
-   /**
-    * Returns the number of cards in a players hand
-    * 
-    * @param playerIndex the specified player
-    * @return the number of cards
-    */
-   public int getNumCardsInHand(int playerIndex)
-   {
-      return getHand(playerIndex).getNumCards();
-   }
-
-   /**
-    * Return the hand of the specified player
-    * 
-    * @param k the specified player
-    * @return the hand of the player
-    */
-   public Hand getHand(int k)
-   {
-      // hands start from 0 like arrays
-
-      // on error return automatic empty hand
-      if (k < 0 || k >= numPlayers)
-         return new Hand();
-
-      return hand[k];
-   }
-
-   /**
-    * Get a card from the deck
-    * 
-    * @return the card if deck is not empty
-    */
-   public Card getCardFromDeck()
-   {
-      if (deck.getNumCards() == 0)
-      {
-         // set the flag to indicate deck is empty
-         deckExhausted = true;
-      }
-
-      return deck.dealCard();
-   }
-
-   /**
-    * Return the number of cards left in the deck
-    */
-   public int getNumCardsRemainingInDeck()
-   {
-      return deck.getNumCards();
-   }
-
-   /**
-    * Return the number of cards of a hand
-    */
-   public int getNumCardsPerHand()
-   {
-      return numCardsPerHand;
-   }
-
-   /**
-    * Return the number of players
-    */
-   public int getNumPlayers()
-   {
-      return numPlayers;
-   }
-
-   /**
-    * Return the stack cards array
-    */
-   public Card[] getStack()
-   {
-      return stack;
-   }
-
-   /**
-    * Replace the card of specified stack with the given card
-    * 
-    * @return true if successful
-    */
-   public boolean setStackCard(int stackIndex, Card card)
-   {
-      if (stackIndex < NUM_STACKS && stackIndex >= 0)
-      {
-         // replace the card of the specified stack
-         stack[stackIndex] = card;
-         return true;
-      }
-      return false;
-   }
-
 }
 
 /*-----------------------------------------------------
@@ -452,802 +139,278 @@ public class BuildModel
  * 
  * description:  creates a new GUICard class 
  * usage:        manages the reading and building of the card
- *               image Icons.
+ *               image Icons. The cards are sliced from one atlas,
+ *               images/cards.atlas on the class path, written by
+ *               PackCardAtlas: cell i of the 8 by 8 grid is the card
+ *               with code i, the back is cell 56.
+ *               The icons exist from the start and draw a plain card
+ *               until preloadCardIcons has read the images in the
+ *               background, then every window is repainted.
  *****************************************************************/
 class GUICard
 {
    // members to facilitate GUICard class
-   private static Icon[][] iconCards = new ImageIcon[14][4];
-   private static Icon iconBack;
-   static boolean iconsLoaded = false;
+   private static CardIcon[] iconCards = new CardIcon[Card.NUM_CARD_CODES];
+   private static CardIcon iconBack;
+   static volatile boolean iconsLoaded = false;
+   private static CompletableFuture<Void> loading;
 
    // identifies card icon filenames
-   private static char[] cardSuits =
+   static char[] cardSuits =
    { 'C', 'D', 'H', 'S' };
 
-   /**
-    * generates the image icon array from files
-    */
-   static void loadCardIcons()
-   {
-      if (iconsLoaded)
-         return;
+   // layout of the atlas
+   static final String ATLAS = "images/cards.atlas";
+   static final int ATLAS_COLUMNS = 8;
+   static final int CARD_WIDTH = 73;
+   static final int CARD_HEIGHT = 97;
+   static final int BACK_CELL = Card.NUM_CARD_CODES;
 
-      // generates file names of icon and adds to Icon's array
-      String filename = "";
-      for (int i = 0; i < Card.valuRanks.length; ++i)
-      {
-         for (int j = 0; j < cardSuits.length; ++j)
-         {
-            filename = "src/images/" + Card.valuRanks[i] + cardSuits[j]
-               + ".gif";
-            iconCards[i][j] = new ImageIcon(filename);
-         }
-      }
-      // fills the back of card
-      iconBack = new ImageIcon("src/images/BK.gif");
-      iconsLoaded = true;
-   }
-
-   // returns back icon for back of card
-   public static Icon getBackCardIcon()
-   {
-      loadCardIcons();
-      return iconBack;
-   }
-
-   // returns specific icon
-   public static Icon getIcon(Card card)
+   static
    {
-      loadCardIcons();
-      return iconCards[valueAsInt(card)][suitAsInt(card)];
+      for (int code = 0; code < Card.NUM_CARD_CODES; ++code)
+         iconCards[code] = new CardIcon("" + Card.valuRanks[code
+            / cardSuits.length] + cardSuits[code % cardSuits.length]);
+      iconBack = new CardIcon(null);
    }
 
-   // index of card value returned
-   private static int valueAsInt(Card card)
-   {
-      int i = 0;
-      while (card.getValue() != Card.valuRanks[i])
-         ++i;
-
-      return i;
-   }
-
-   // returns index of card suit
-   private static int suitAsInt(Card card)
-   {
-      int i;
-      Card.Suit suit = card.getSuit();
-      Card.Suit[] allSuits = Card.Suit.values();
-
-      for (i = 0; i < allSuits.length; ++i)
-         if (suit == allSuits[i])
-            return i;
-
-      // invalid suit
-      return -1;
-   }
-}
-
-/*-----------------------------------------------------
- * End Of GUI Card
- *-----------------------------------------------/
-/****************************************************************
- * Card
- * imported Card class 
- ***************************************************************/
-class Card
-{
-   public enum Suit
-   {
-      CLUBS, DIAMONDS, HEARTS, SPADES
-   };
-
-   // card values
-   private char value;
-   private Suit suit;
-   public static char[] valuRanks =
-   { 'A', '2', '3', '4', '5', '6', '7', '8', '9', 'T', 'J', 'Q', 'K', 'X' };
-
-   // Checks for illegal card data
-   private boolean errorFlag;
-
    /**
-    * Constructor
-    * 
-    * @param value
-    * @param suit
+    * Starts reading the images on the common pool, so the table can be
+    * built and dealt meanwhile. Only the first call starts the work.
+    *
+    * @return done when every icon has its image
     */
-   public Card(char value, Suit suit)
+   static synchronized CompletableFuture<Void> preloadCardIcons()
    {
-      set(value, suit);
-   }
-
-   /**
-    * Overloaded constructor
+      if (loading == null)
+         loading = CompletableFuture.runAsync(GUICard::readCardImages)
+            .whenComplete((done, error) ->
+            {
+               if (error != null)
+               {
+                  // the placeholders stay, loadCardIcons throws the error
+                  System.err.println("cannot read the card images: "
+                     + error);
+                  return;
+               }
+               iconsLoaded = true;
+               // the placeholders on screen are replaced by the cards
+               SwingUtilities.invokeLater(() ->
+               {
+                  for (Window window : Window.getWindows())
+                     window.repaint();
+               });
+            });
+      return loading;
+   }
+
+   /**
+    * waits until the images are read, for code that draws the icons
+    * without a window. Throws a CompletionException if they cannot be read.
     */
-   public Card()
+   static void loadCardIcons()
    {
-      this('A', Suit.SPADES);
+      if (!iconsLoaded)
+         preloadCardIcons().join();
    }
 
    /**
-    * Copy Constructor
-    * 
-    * @param otherCard
+    * gives every icon its image from the atlas, or from the single gif
+    * files if the atlas cannot be read
     */
-   public Card(Card otherCard)
+   private static void readCardImages()
    {
-      if (otherCard == null)
+      BufferedImage atlas = readAtlas();
+      if (atlas == null)
       {
-         System.out.println("Fatal Error!");
-         System.exit(0);
-      }
-      set(otherCard.value, otherCard.suit);
-   }
-
-   // Accessors
-   public Suit getSuit()
-   {
-      return suit;
-   }
-
-   public char getValue()
-   {
-      return value;
-   }
-
-   public boolean getErrorFlag()
-   {
-      return errorFlag;
-   }
-
-   // Mutators
-   public boolean set(char value, Suit suit)
-   {
-      if (isValid(value, suit))
-      {
-         this.value = value;
-         this.suit = suit;
-         errorFlag = false;
-         return true;
-      }
-      errorFlag = true;
-      return false;
-   }
-
-   // Valid card data returned
-   public String toString()
-   {
-      if (errorFlag)
-         return "[Card Not Valid]";
-      return value + " of " + suit;
-
-   }
-
-   // Returns true if all field members are identical, false otherwise
-   public boolean equals(Card card)
-   {
-      if (card == null)
-         return false;
-
-      // comparing member values
-      if (this.value == card.value)
-      {
-         if (this.suit == card.suit)
-            return true;
+         loadCardFiles();
+         return;
       }
-      return false;
-   }
 
-   // Determine validity for the value
-   private boolean isValid(char value, Suit suit)
-   {
-      // checks if value is in the field of valid values
-      for (int i = 0; i < valuRanks.length; ++i)
-      {
-         if (value == valuRanks[i])
-            return true;
-      }
-      // invalid value
-      return false;
-   }
-
-   public static void arraySort(Card[] cArray, int arraySize)
-   {
-      for (int i = 0; i < arraySize - 1; i++)
-      {
-         for (int j = 0; j < arraySize - i - 1; j++)
-         {
-            if (cardAsInt(cArray[j]) > cardAsInt(cArray[j + 1]))
-            {
-               Card temp = cArray[j];
-               cArray[j] = cArray[j + 1];
-               cArray[j + 1] = temp;
-            }
-         }
-      }
+      // one copy in the screen's format, so drawing a card needs no
+      // conversion, then every card is a view into it
+      atlas = compatibleCopy(atlas);
+      for (int code = 0; code < Card.NUM_CARD_CODES; ++code)
+         iconCards[code].setImage(cell(atlas, code));
+      iconBack.setImage(cell(atlas, BACK_CELL));
    }
 
    /**
-    * It returns an integer according to the value
-    * 
-    * @param card
-    * @return -1 if the value is not valid
+    * Reads the atlas from the class path or src/images. It is a deflated
+    * stream of the width, the height, the palette size, the ARGB palette,
+    * then one palette index per pixel. Reading it this way skips the
+    * start up of ImageIO, which takes longer than the decoding.
+    *
+    * @return the atlas, null if it is missing or cannot be read, which is
+    *         reported on stderr
     */
-   public static int valueAsInt(Card card)
+   private static BufferedImage readAtlas()
    {
-      for (int i = 0; i < valuRanks.length; i++)
+      InputStream stream = GUICard.class.getResourceAsStream(ATLAS);
+      try
       {
-         if (valuRanks[i] == card.getValue())
+         if (stream == null)
          {
-            return i;
+            File file = new File("src/" + ATLAS);
+            if (!file.isFile())
+               return null;
+            stream = new FileInputStream(file);
          }
-      }
-      // Not matching any values in the ranks
-      return -1;
-   }
-
-   /**
-    * It returns the suit position as an integer
-    * 
-    * @param card
-    * @return an integer
-    */
-   public static int suitAsInt(Card card)
-   {
-      return card.getSuit().ordinal();
-   }
-
-   /**
-    * It returns a specific integer for a card according to the value and the
-    * suit
-    * 
-    * @param card
-    * @return an integer for the card
-    */
-   public static int cardAsInt(Card card)
-   {
-      int total = Card.valueAsInt(card) * 4 + Card.suitAsInt(card);
-      return total;
-   }
-}
-
-/*-----------------------------------------------------
- * End Of Card
- *----------------------------------------------/
- /****************************************************************
- * Hand 
- * imported Hand class 
- ***************************************************************/
-class Hand
-{
-   // a hand can only have 52 cards maximum
-   public static final int MAX_CARDS = 52;
-
-   private Card[] myCards;
-   private int numCards;
-
-   // Constructor
-   public Hand()
-   {
-      myCards = new Card[MAX_CARDS];
-      numCards = 0;
-   }
-
-   /**
-    * resets hand
-    */
-   public void resetHand()
-   {
-      numCards = 0;
-   }
-
-   /**
-    * Adds a card to the next available position
-    * 
-    * @param card
-    * @return boolean
-    */
-   public boolean takeCard(Card card)
-   {
-      if (numCards < MAX_CARDS && card != null && !card.getErrorFlag())
-      {
-         Card tempCard = new Card(card);
-         myCards[numCards] = tempCard;
-         numCards++;
-         return true;
-      }
-      return false;
-   }
-
-   // stringifies the hand
-   public String toString()
-   {
-      String myHand = "";
-      if (numCards > 0)
-      {
-
-         myHand += myCards[0];
-         for (int i = 1; i < numCards; i++)
+         try (DataInputStream in = new DataInputStream(
+            new InflaterInputStream(new BufferedInputStream(stream))))
          {
-            myHand += " , " + myCards[i];
+            int width = in.readInt();
+            int height = in.readInt();
+            int[] palette = new int[in.readInt()];
+            for (int i = 0; i < palette.length; i++)
+               palette[i] = in.readInt();
+            byte[] pixels = new byte[width * height];
+            in.readFully(pixels);
+
+            IndexColorModel colors = new IndexColorModel(8, palette.length,
+               palette, 0, true, -1, DataBuffer.TYPE_BYTE);
+            return new BufferedImage(colors, Raster.createInterleavedRaster(
+               new DataBufferByte(pixels, pixels.length), width, height,
+               width, 1, new int[] { 0 }, null), false, null);
          }
-
       }
-      return "Hand = " + "(" + myHand + ")";
-   }
-
-   // Accessor
-   public int getNumCards()
-   {
-      return numCards;
-   }
-
-   // Accessor
-   public Card inspectCard(int k)
-   {
-
-      if (k >= 0 && k < numCards) // assume valid k starts from 0
+      catch (IOException | IllegalArgumentException e)
       {
-         Card aCard = new Card(myCards[k]); // prevent privacy leaks
-         return aCard;
+         System.err.println("cannot read " + ATLAS + ", reading the gif"
+            + " files instead: " + e);
+         return null;
       }
-
-      // return a dummy invalid card
-      Card badCard = new Card(' ', Card.Suit.SPADES);
-      return badCard;
-
    }
 
-   /**
-    * Sort the cards in the hand in ascending order
-    */
-   public void sort()
+   private static BufferedImage cell(BufferedImage atlas, int index)
    {
-      Card.arraySort(myCards, numCards);
+      return atlas.getSubimage(index % ATLAS_COLUMNS * CARD_WIDTH,
+         index / ATLAS_COLUMNS * CARD_HEIGHT, CARD_WIDTH, CARD_HEIGHT);
    }
 
-   /**
-    * Return a card on the top of the hand
-    * 
-    * @return a good card if there is any
-    */
-   public Card playCard()
+   // copy in the format of the default screen, a plain ARGB copy without one
+   private static BufferedImage compatibleCopy(BufferedImage image)
    {
-      if (numCards > 0)
-      {
-         numCards--;
-         return myCards[numCards];
-      }
-
-      // No more cards, return a card that does not work
-      return new Card('M', Card.Suit.SPADES);
-
-   }
-
-   /**
-    * Remove a card from the given location and slide down cards behind down one
-    * spot
-    * 
-    * @param cardIndex the location where the card is removed from the hand
-    * @return the card at the given location or a bad card if location is
-    *         invalid
-    */
-   public Card playCard(int cardIndex)
-   {
-      if (cardIndex < 0 || cardIndex >= numCards) // out of bound error
-      {
-         // Creates a card that does not work
-         return new Card('M', Card.Suit.SPADES);
-      }
-      // Decreases numCards.
-      Card card = myCards[cardIndex];
-      numCards--;
-
-      // Slide down cards that followed down one spot
-      for (int i = cardIndex; i < numCards; i++)
-      {
-         myCards[i] = myCards[i + 1];
-      }
-
-      myCards[numCards] = null;
-
-      return card;
-   }
-
-}
-/*-----------------------------------------------------
- * End Of Hand
- *----------------------------------------------/
- /****************************************************************
- * Deck import
- * imported Deck class
- ***************************************************************/
-
-class Deck
-{
-   // playing card pack values
-   public static final int MAX_CARDS = 312; // 6 packs x 52 cards
-   public static final int ONE_PACK = 52; // standard 52 cards
-   public static boolean beenHereBefore = false;
-
-   // creates a new object with one pack of cards
-   private static Card[] masterPack = new Card[ONE_PACK];
-
-   private Card[] cards; // cards in the deck
-   private int topCard; // keep track of number of cards in the deck
-   private int numPacks; // keep track of number of packs in the deck
-
-   /**
-    * Constructor that takes in a number of packs as an argument and then
-    * creates a deck of cards with that many packs of cards (56 x numPacks)
-    * 
-    * @param numPacks
-    */
-   public Deck(int numPacks)
-   {
-      // maximum packs is 6
-      if ((numPacks * ONE_PACK) > MAX_CARDS)
-         numPacks = 6;
-
-      this.numPacks = numPacks;
-
-      allocateMasterPack();
-
-      // create the cards array with (52+4) x numPacks cards
-      // standard is 52 cards but possible add 4 jokers per pack
-      cards = new Card[numPacks * (ONE_PACK + 4)];
-
-      // populate the cards in the deck
-      init(numPacks);
-   }
-
-   /*
-    * Overloaded no argument constructor that creates a pack of cards using just
-    * one deck
-    */
-   public Deck()
-   {
-      this.numPacks = 1;
-
-      allocateMasterPack();
-
-      // Create the cards array using one pack of cards
-      cards = new Card[ONE_PACK + 4]; // add 4 joker spaces
-
-      // Initialize the last index of the array to be the top card of the deck
-      topCard = ONE_PACK; // no jokers that will be added if needed
-
-      // Loop through the cards array, populating it with Cards
-      for (int i = 0; i < topCard; i++)
-      {
-         // Create a new Card Object, copying it from the masterPack
-         cards[i] = new Card(masterPack[i]);
-      }
-   }
-
-   /**
-    * Method to re-populate cards[] with 52 x numPacks cards.
-    * 
-    * @param numPacks
-    */
-   public void init(int numPacks)
-   {
-
-      // Initialize the last index of the array to be the top card of the deck
-      topCard = numPacks * ONE_PACK; // no jokers that can be added when needed
-
-      this.numPacks = numPacks;
-
-      // Populate the card array with Card objects, copying values from
-      // masterPack
-      for (int masterCounter = 0, i = 0; i < topCard; i++, masterCounter++)
-      {
-         // Create a new Card Object, copying it from the masterPack
-         cards[i] = new Card(masterPack[masterCounter]);
-
-         // If the cards array is more than one pack, reset the index of
-         // masterPack
-         // in order to loop through it again
-         if (masterCounter == ONE_PACK - 1)
-            masterCounter = -1;
-      }
-   }
-
-   /**
-    * Shuffles the deck of Cards
-    */
-   public void shuffle()
-   {
-      Random shuffle = new Random();
-      Card tempCard;
-      int randCard;
-
-      // loops through the entire deck
-      for (int x = 0; x < topCard; x++)
-      {
-         // Picks a random card from the deck
-         randCard = shuffle.nextInt(ONE_PACK);
-         // assigns the random card to a placeholder
-         tempCard = cards[randCard];
-         // assigns the random card to the next card in the deck
-         cards[randCard] = cards[x];
-         // assigns the next card in the deck to the card in
-         // the place holder
-         cards[x] = tempCard;
-      }
-   }
-
-   /**
-    * Deals a card by taking the top of the deck and makes sure there are still
-    * cards available.
-    * 
-    * @return the top Card from the deck.
-    */
-   public Card dealCard()
-   {
-      Card dealCard;
-
-      // checks if there are cards in the deck
-      if (topCard > 0)
-      {
-         // assigns the top card to the dealCard variable
-         dealCard = inspectCard(topCard - 1);
-
-         // removes the topcard from the deck
-         cards[topCard - 1] = null;
-
-         // decreases card count
-         topCard--;
-         return dealCard;
-      }
-      // returns null if no more cards
-      return null;
-   }
-
-   /**
-    * Returns the number of cards in a deck.
-    * 
-    * @return the number of cards in the deck
-    */
-   public int getTopCard()
-   {
-      return topCard;
-   }
-
-   /**
-    * Accessor for an individual card. Returns a card or returns a card with an
-    * error flag.
-    * 
-    * @return the card at index k
-    * @return a card with with an error flag
-    */
-   public Card inspectCard(int k)
-   {
-      Card returnCard;
-
-      // If k is out of bounds, return a card with an error flag
-      if (k < 0 || k >= topCard)
-      {
-         // Create an invalid card with errorFlag = true
-         returnCard = new Card('E', Card.Suit.CLUBS);
-      }
+      BufferedImage copy;
+      if (GraphicsEnvironment.isHeadless())
+         copy = new BufferedImage(image.getWidth(), image.getHeight(),
+            BufferedImage.TYPE_INT_ARGB);
       else
-      {
-         // Otherwise return the card at k index
-         returnCard = cards[k];
-      }
-      return returnCard;
+         copy = GraphicsEnvironment.getLocalGraphicsEnvironment()
+            .getDefaultScreenDevice().getDefaultConfiguration()
+            .createCompatibleImage(image.getWidth(), image.getHeight(),
+               Transparency.BITMASK);
+      Graphics2D g = copy.createGraphics();
+      g.drawImage(image, 0, 0, null);
+      g.dispose();
+      return copy;
    }
 
-   /**
-    * This method creates new cards and fills the masterPack.
-    */
-   private static void allocateMasterPack()
+   // the old way, one gif per card from the class path or src/images,
+   // decoded in parallel
+   private static void loadCardFiles()
    {
-      // Check if this method has already been run. Return if it has.
-      if (beenHereBefore)
-         return;
-
-      char[] value =
-      { 'A', '2', '3', '4', '5', '6', '7', '8', '9', 'T', 'J', 'Q', 'K' };
-
-      Card.Suit[] suits =
-      { Card.Suit.CLUBS, Card.Suit.DIAMONDS, Card.Suit.HEARTS,
-         Card.Suit.SPADES };
-
-      int curIndex = 0;
-
-      // Loop through the value array
-      for (int x = 0; x < value.length; x++)
+      IntStream.rangeClosed(0, BACK_CELL).parallel().forEach(code ->
       {
-         // Loop through the suits array
-         for (int y = 0; y < suits.length; y++)
-         {
-            // Create a new Card object with the correct suit and value
-            masterPack[curIndex] = new Card(value[x], suits[y]);
-            curIndex++;
-         }
-      }
-
-      beenHereBefore = true;
+         CardIcon icon = code == BACK_CELL ? iconBack : iconCards[code];
+         icon.setImage(loadFile(cardFileName(code)).getImage());
+      });
    }
 
    /**
-    * Adds the card to the top of the deck if there aren't too many instances
-    * 
-    * @param card the card to be added
-    * @return false if the card is already there or no rooms, otherwise return
-    *         true
+    * @param code a card code, or BACK_CELL for the back
+    * @return the gif of the card, like images/TH.gif
     */
-   public boolean addCard(Card card)
+   static String cardFileName(int code)
    {
-      if (cards.length == topCard)
-      {
-         return false; // no room for the card
-      }
-
-      int ctr = 0; // counter for the instances of the card
-      for (int i = 0; i < topCard; i++)
-      {
-         if (cards[i].equals(card))
-         {
-            ctr++;
-         }
-      }
-
-      if (ctr < numPacks)
-      {
-         // number of instances not exceeding the numPacks
-         cards[topCard] = card; // add the card to the deck
-         topCard++;
-         return true;
-      }
-      return false;
+      if (code == BACK_CELL)
+         return "images/BK.gif";
+      // same layout as Card.cardAsInt
+      return "images/" + Card.valuRanks[code / cardSuits.length]
+         + cardSuits[code % cardSuits.length] + ".gif";
    }
 
-   /**
-    * Remove one instance of a specific card from the deck
-    * 
-    * @param card the specific card
-    * @return true if success, otherwise false
-    */
-   public boolean removeCard(Card card)
+   // ImageIcon does not throw for a missing or broken file, its status
+   // tells
+   private static ImageIcon loadFile(String filename)
    {
-
-      // remove only one instance of the card
-      for (int i = 0; i < topCard; i++)
-      {
-         if (cards[i].equals(card))
-         {
-            cards[i] = cards[topCard - 1];
-            cards[topCard - 1] = null;
-            topCard--;
-            return true;
-         }
-      }
-      return false;
+      URL url = GUICard.class.getResource(filename);
+      ImageIcon icon = url != null ? new ImageIcon(url)
+         : new ImageIcon("src/" + filename);
+      if (icon.getImageLoadStatus() != MediaTracker.COMPLETE)
+         throw new UncheckedIOException(new IOException("cannot read "
+            + filename));
+      return icon;
    }
 
-   public void sort()
+   // returns back icon for back of card
+   public static Icon getBackCardIcon()
    {
-      Card.arraySort(cards, topCard);
+      preloadCardIcons();
+      return iconBack;
    }
 
-   public int getNumCards()
+   // returns specific icon, null for an invalid card
+   public static Icon getIcon(Card card)
    {
-      return topCard;
+      preloadCardIcons();
+      if (card == null || card.getErrorFlag())
+         return null;
+      return iconCards[Card.cardAsInt(card)];
    }
 }
-/*-----------------------------------------------------
- * End Of Deck
- *----------------------------------------------*/
 
 /**
- * Counter class: multi-thread of the timer
+ * The icon of one card, a plain card with its name until the image is read
  */
-class Timer extends Thread
+class CardIcon implements Icon
 {
-   private int sec = 0;
-   private boolean threading = true;
-   JLabel timerLabel;
+   private static final Color PLACEHOLDER = new Color(235, 235, 225);
+   private static final Color BACK = new Color(60, 80, 140);
 
-   /**
-    * default constructor calls the constructor of the Thread class
-    */
-   public Timer()
+   private final String name; // null for the back
+   private volatile Image image;
+
+   CardIcon(String name)
    {
-      super();
+      this.name = name;
    }
 
-   /**
-    * constructor allows the caller to initialize the thread with a start time.
-    * "pause" illusion
-    */
-   public Timer(int timeStartValue)
+   void setImage(Image image)
    {
-      // prevents incrementation
-      this.sec = timeStartValue - 1;
+      this.image = image;
    }
 
-   /**
-    * updates timer
-    */
-   public void run()
+   @Override
+   public void paintIcon(Component c, Graphics g, int x, int y)
    {
-      while (threading)
+      Image shown = image;
+      if (shown != null)
       {
-         // timer restarts to 0 after 99min
-         if (this.sec < 6000)
-         {
-            this.sec += 1;
-         }
-         else
-         {
-            this.sec = 0;
-         }
-         // JLabel text
-         timerLabel.setText(timeFormat(sec));
-
-         doNothing(1000); // 1000 millisecond pause
-
+         g.drawImage(shown, x, y, c);
+         return;
       }
+      g.setColor(name == null ? BACK : PLACEHOLDER);
+      g.fillRoundRect(x, y, getIconWidth() - 1, getIconHeight() - 1, 8, 8);
+      g.setColor(Color.gray);
+      g.drawRoundRect(x, y, getIconWidth() - 1, getIconHeight() - 1, 8, 8);
+      if (name != null)
+         g.drawString(name, x + 6, y + 16);
    }
 
-   /**
-    * Added to allow Timer class to reset timer to zero.
-    */
-   public boolean resetSec(int sec)
-   {
-      this.sec = sec;
-      return true;
-   }
-   public void setJLabel(JLabel timerLabel)
-   {
-      this.timerLabel = timerLabel;
-   }
-   /**
-    * terminates run() loop
-    */
-   public boolean stopThread()
-   {
-      this.threading = false;
-      return true;
-   }
-
-   /**
-    * return time elapsed
-    */
-   public int secElapsed()
-   {
-      return this.sec;
-   }
-
-   /**
-    * @return string in mm:ss format
-    */
-   public String timeFormat(int totalSeconds)
+   @Override
+   public int getIconWidth()
    {
-      int minutes = totalSeconds / 60;
-      int sec = totalSeconds - (minutes * 60);
-      String formattedTime = String.format("%02d", minutes) + ":" + String
-         .format("%02d", sec);
-      return formattedTime;
+      return GUICard.CARD_WIDTH;
    }
 
-   /**
-    * private helping method pauses thread to allow multi-threading
-    */
-   private void doNothing(int milliseconds)
+   @Override
+   public int getIconHeight()
    {
-      try
-      {
-         Thread.sleep(milliseconds);
-      } catch (InterruptedException e)
-      {
-         System.out.println("Unexpected interrupt");
-         System.exit(0);
-      }
+      return GUICard.CARD_HEIGHT;
    }
 }
+
+/*-----------------------------------------------------
+ * End Of GUI Card
+ *----------------------------------------------*/
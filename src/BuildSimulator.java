@@ -0,0 +1,260 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/****************************************************************
+ * BuildSimulator
+ *
+ * Description: Plays many games of "BUILD" without the GUI, every seat
+ *              using the computer's greedy play (first card that fits,
+ *              otherwise pass), and prints games per second, the score
+ *              distributions and how often the players pass
+ * Usage:       java BuildSimulator [games] [packs] [jokers] [players]
+ *                 [threads] [seed]
+ *              Games are split over a ForkJoinPool, each task plays its
+ *              share with its own BuildEngine. The same seed gives the same
+ *              results for any number of threads.
+ *****************************************************************/
+
+public class BuildSimulator
+{
+   private static final int NUM_CARDS_PER_HAND = 7;
+   private static final int MIN_GAMES_PER_TASK = 512;
+
+   // scores and margins beyond these are counted in the last bucket
+   static final int MAX_SCORE = 40;
+   static final int MAX_MARGIN = 20;
+
+   public static void main(String[] args)
+   {
+      long games = 1_000_000;
+      int packs = 1;
+      int jokers = 4;
+      int players = 2;
+      int threads = Runtime.getRuntime().availableProcessors();
+      long seed = 42;
+
+      try
+      {
+         if (args.length > 0)
+            games = Long.parseLong(args[0]);
+         if (args.length > 1)
+            packs = Integer.parseInt(args[1]);
+         if (args.length > 2)
+            jokers = Integer.parseInt(args[2]);
+         if (args.length > 3)
+            players = Integer.parseInt(args[3]);
+         if (args.length > 4)
+            threads = Integer.parseInt(args[4]);
+         if (args.length > 5)
+            seed = Long.parseLong(args[5]);
+      }
+      catch (NumberFormatException e)
+      {
+         System.out.println("usage: java BuildSimulator [games] [packs]"
+            + " [jokers] [players] [threads] [seed]");
+         return;
+      }
+      if (games < 1 || players < 2 || threads < 1)
+      {
+         System.out.println("need at least 1 game, 2 players and 1 thread");
+         return;
+      }
+
+      // the engine filters bad values, simulate and report what it plays
+      BuildEngine check = new BuildEngine(packs, jokers, 0, null, players,
+         NUM_CARDS_PER_HAND);
+      packs = check.getNumPacks();
+      jokers = check.getNumJokersPerPack();
+      players = check.getNumPlayers();
+
+      // a few tasks per thread, so a slow one does not hold up the rest
+      long leafGames = Math.max(MIN_GAMES_PER_TASK, games / (4L * threads));
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      long start = System.nanoTime();
+      Stats stats = pool.invoke(new SimulateTask(0, games, leafGames, packs,
+         jokers, players, seed));
+      double seconds = (System.nanoTime() - start) / 1e9;
+      pool.shutdown();
+
+      System.out.println(String.format(
+         "%d games, %d packs, %d jokers per pack, %d players, %d threads",
+         stats.games, packs, jokers, players, threads));
+      System.out.println(String.format("%.2f s, %.0f games/s", seconds,
+         stats.games / seconds));
+      stats.print();
+   }
+
+   /**
+    * Plays one game with every seat playing greedy and adds it to the stats
+    *
+    * @param engine a dealt engine, the game is played to the end
+    * @param stats  where the result goes
+    */
+   static void playGreedy(BuildEngine engine, Stats stats)
+   {
+      long turns = 0;
+      while (!engine.isTerminal())
+      {
+         int player = engine.getPlayerToMove();
+         int play = engine.findFirstPlay(player);
+         if (play >= 0)
+            engine.play(player, play / BuildEngine.NUM_STACKS,
+               play % BuildEngine.NUM_STACKS);
+         else
+            engine.pass(player);
+         turns++;
+      }
+      stats.add(engine, turns);
+   }
+
+   /**
+    * Plays the games [from, to) or splits them in two halves until a task
+    * has at most leafGames games
+    */
+   static class SimulateTask extends RecursiveTask<Stats>
+   {
+      private static final long serialVersionUID = 1L;
+      private final long from, to, leafGames;
+      private final int packs, jokers, players;
+      private final long seed;
+
+      SimulateTask(long from, long to, long leafGames, int packs, int jokers,
+         int players, long seed)
+      {
+         this.from = from;
+         this.to = to;
+         this.leafGames = leafGames;
+         this.packs = packs;
+         this.jokers = jokers;
+         this.players = players;
+         this.seed = seed;
+      }
+
+      @Override
+      protected Stats compute()
+      {
+         long games = to - from;
+         if (games > leafGames)
+         {
+            long middle = from + games / 2;
+            SimulateTask left = new SimulateTask(from, middle, leafGames,
+               packs, jokers, players, seed);
+            left.fork();
+            Stats right = new SimulateTask(middle, to, leafGames, packs,
+               jokers, players, seed).compute();
+            return left.join().merge(right);
+         }
+
+         BuildEngine engine = new BuildEngine(packs, jokers, 0, null, players,
+            NUM_CARDS_PER_HAND);
+         Stats stats = new Stats(players);
+         for (long game = from; game < to; game++)
+         {
+            // seed every game by its number so results do not depend on
+            // how the games were split
+            engine.setRandom(new SplittableRandom(seed ^ game
+               * 0x9E3779B97F4A7C15L));
+            engine.newGame();
+            playGreedy(engine, stats);
+         }
+         return stats;
+      }
+   }
+
+   /**
+    * Totals of a batch of games
+    */
+   static class Stats
+   {
+      long games;
+      long turns;
+      long passes;
+      long ties;
+      long[] wins;
+      long[] scoreSum;
+      long[][] scoreCounts; // [seat][score]
+      long[] marginCounts; // score of seat 0 minus seat 1, shifted
+
+      Stats(int players)
+      {
+         wins = new long[players];
+         scoreSum = new long[players];
+         scoreCounts = new long[players][MAX_SCORE + 1];
+         marginCounts = new long[2 * MAX_MARGIN + 1];
+      }
+
+      void add(BuildEngine engine, long gameTurns)
+      {
+         games++;
+         turns += gameTurns;
+         for (int k = 0; k < wins.length; k++)
+         {
+            int score = engine.getPlayerScore(k);
+            passes += score; // one point per pass
+            scoreSum[k] += score;
+            scoreCounts[k][Math.min(score, MAX_SCORE)]++;
+         }
+         int margin = engine.getPlayerScore(0) - engine.getPlayerScore(1);
+         marginCounts[Math.max(-MAX_MARGIN, Math.min(MAX_MARGIN, margin))
+            + MAX_MARGIN]++;
+
+         int winner = engine.getWinner();
+         if (winner < 0)
+            ties++;
+         else
+            wins[winner]++;
+      }
+
+      Stats merge(Stats other)
+      {
+         games += other.games;
+         turns += other.turns;
+         passes += other.passes;
+         ties += other.ties;
+         for (int k = 0; k < wins.length; k++)
+         {
+            wins[k] += other.wins[k];
+            scoreSum[k] += other.scoreSum[k];
+            for (int s = 0; s <= MAX_SCORE; s++)
+               scoreCounts[k][s] += other.scoreCounts[k][s];
+         }
+         for (int m = 0; m < marginCounts.length; m++)
+            marginCounts[m] += other.marginCounts[m];
+         return this;
+      }
+
+      void print()
+      {
+         System.out.println(String.format(
+            "turns/game %.2f, passes/game %.2f, pass rate %.2f%%",
+            (double) turns / games, (double) passes / games,
+            100.0 * passes / turns));
+         System.out.println(String.format("ties %.2f%%", 100.0 * ties
+            / games));
+
+         for (int k = 0; k < wins.length; k++)
+         {
+            System.out.print(String.format(
+               "seat %d: wins %.2f%%, mean score %.3f, scores", k,
+               100.0 * wins[k] / games, (double) scoreSum[k] / games));
+            for (int s = 0; s <= MAX_SCORE; s++)
+               if (scoreCounts[k][s] > 0)
+                  System.out.print(String.format(" %d%s:%.2f%%", s,
+                     s == MAX_SCORE ? "+" : "", 100.0 * scoreCounts[k][s]
+                        / games));
+            System.out.println();
+         }
+
+         // the computer is seat 0, a negative margin means it won
+         double meanMargin = (double) (scoreSum[0] - scoreSum[1]) / games;
+         System.out.print(String.format(
+            "margin seat 0 - seat 1: mean %.3f, counts", meanMargin));
+         for (int m = 0; m < marginCounts.length; m++)
+            if (marginCounts[m] > 0)
+               System.out.print(String.format(" %d:%.2f%%", m - MAX_MARGIN,
+                  100.0 * marginCounts[m] / games));
+         System.out.println();
+      }
+   }
+}
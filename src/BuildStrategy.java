@@ -0,0 +1,57 @@
+/****************************************************************
+ * BuildStrategy
+ *
+ * Description: The way a computer player picks its move in "BUILD"
+ * Usage:       BuildController asks the strategy for the computer's move,
+ *              simulations can give any seat any strategy
+ *****************************************************************/
+
+public interface BuildStrategy
+{
+   /**
+    * Picks the move of the player, it must be the player's turn. The engine
+    * is not changed.
+    *
+    * @param engine the game
+    * @param player the player to move
+    * @return cardIndex * BuildEngine.NUM_STACKS + stackIndex, or
+    *         BuildEngine.PASS
+    */
+   int chooseMove(BuildEngine engine, int player);
+}
+
+/****************************************************************
+ * GreedyBuildStrategy
+ *
+ * Description: Plays the first card that fits on a stack, trying the stacks
+ *              in order and the lowest card first, and passes if nothing
+ *              fits. This is how the computer always played.
+ *****************************************************************/
+
+class GreedyBuildStrategy implements BuildStrategy
+{
+   @Override
+   public int chooseMove(BuildEngine engine, int player)
+   {
+      int play = engine.findFirstPlay(player);
+      return play >= 0 ? play : BuildEngine.PASS;
+   }
+
+   /**
+    * Plays the game to the end with every seat playing greedy
+    *
+    * @param engine the game, it is changed
+    */
+   static void playOut(BuildEngine engine)
+   {
+      while (!engine.isTerminal())
+      {
+         int player = engine.getPlayerToMove();
+         int play = engine.findFirstPlay(player);
+         if (play >= 0)
+            engine.applyMove(player, play);
+         else
+            engine.pass(player);
+      }
+   }
+}
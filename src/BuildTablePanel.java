@@ -0,0 +1,410 @@
+import java.awt.*;
+import java.awt.event.*;
+import javax.swing.*;
+import java.util.Arrays;
+
+/****************************************************************
+ * BuildTablePanel
+ *
+ * Description: One component that paints the whole "BUILD" table, the
+ *              computer's hand, the deck, the stacks, the scores and the
+ *              human's hand, instead of a button or label per card. A
+ *              hand that does not fit its row overlaps its cards, so the
+ *              pixels painted stay the same however many cards there are.
+ *              Every change repaints only the cards it touched.
+ * Usage:       Made by BuildView when the table is painted. Clicks on a
+ *              card or stack fire the same action commands as BuildView's
+ *              buttons to the listener.
+ *****************************************************************/
+
+@SuppressWarnings("serial")
+class BuildTablePanel extends JComponent
+{
+   private static final int CARD_WIDTH = 73;
+   private static final int CARD_HEIGHT = 97;
+   private static final int GAP = 6;
+   private static final int MARGIN = 12;
+   private static final int TITLE = 18; // room for the row's title
+   private static final int SIDE_WIDTH = 170; // deck and scores columns
+   private static final int ARC = 8;
+   private static final Stroke OUTLINE = new BasicStroke(3);
+
+   private final Color background;
+   private final Color text;
+   private final Color playableColor;
+   private final Color selectedColor;
+
+   private ActionListener listener;
+
+   // what is on the table, hands only grow their arrays
+   private Icon computerIcon;
+   private int numComputerCards;
+   private Icon[] humanIcons = new Icon[0];
+   private int numHumanCards;
+   private Icon[] stackIcons = new Icon[0];
+   private Icon deckIcon;
+   private String status = "";
+   private String computerScore = "";
+   private String humanScore = "";
+
+   // highlights, set by BuildView.showPlayableCards, highlightCard and
+   // showTargetStacks
+   private boolean[] playable = new boolean[0];
+   private int selectedCard = -1;
+   private int targetStacks = 0;
+
+   /**
+    * @param background    the table's color
+    * @param text          the color of titles, scores and status
+    * @param playableColor the outline of playable cards and target stacks
+    * @param selectedColor the outline of the selected card
+    */
+   BuildTablePanel(Color background, Color text, Color playableColor,
+      Color selectedColor)
+   {
+      this.background = background;
+      this.text = text;
+      this.playableColor = playableColor;
+      this.selectedColor = selectedColor;
+
+      setOpaque(true);
+      setDoubleBuffered(true);
+      setPreferredSize(new Dimension(800, 3 * (CARD_HEIGHT + TITLE)
+         + 4 * MARGIN));
+      addMouseListener(new MouseAdapter()
+      {
+         @Override
+         public void mousePressed(MouseEvent e)
+         {
+            if (SwingUtilities.isLeftMouseButton(e))
+               click(e.getX(), e.getY());
+         }
+      });
+   }
+
+   void setActionListener(ActionListener listener)
+   {
+      this.listener = listener;
+   }
+
+   void setComputerCards(Icon icon, int numCards)
+   {
+      if (icon == computerIcon && numCards == numComputerCards)
+         return;
+      // a new count moves every card of the row
+      repaint(rowBounds(computerRowTop()));
+      computerIcon = icon;
+      numComputerCards = numCards;
+   }
+
+   void setHumanCards(Icon[] icons)
+   {
+      int numCards = icons.length;
+      if (numCards > humanIcons.length)
+      {
+         humanIcons = Arrays.copyOf(humanIcons, numCards);
+         playable = Arrays.copyOf(playable, numCards);
+      }
+
+      if (numCards != numHumanCards)
+      {
+         // a new count moves every card of the row
+         repaint(rowBounds(humanRowTop()));
+         numHumanCards = numCards;
+         System.arraycopy(icons, 0, humanIcons, 0, numCards);
+         Arrays.fill(playable, false);
+         selectedCard = -1;
+         return;
+      }
+
+      // same places, only cards with a new face or outline are repainted
+      for (int index = 0; index < numCards; index++)
+      {
+         if (humanIcons[index] == icons[index] && !playable[index]
+            && index != selectedCard)
+            continue;
+         humanIcons[index] = icons[index];
+         playable[index] = false;
+         repaint(outline(humanCardBounds(index)));
+      }
+      selectedCard = -1;
+   }
+
+   void setStacks(Icon[] icons)
+   {
+      if (icons.length != stackIcons.length)
+      {
+         stackIcons = icons.clone();
+         repaint(middleBounds());
+         return;
+      }
+      for (int index = 0; index < icons.length; index++)
+         setStack(index, icons[index]);
+   }
+
+   void setStack(int stackIndex, Icon icon)
+   {
+      if (stackIcons[stackIndex] == icon)
+         return;
+      stackIcons[stackIndex] = icon;
+      repaint(outline(stackBounds(stackIndex)));
+   }
+
+   void setDeck(Icon icon)
+   {
+      if (deckIcon == icon)
+         return;
+      deckIcon = icon;
+      repaint(outline(deckBounds()));
+   }
+
+   void setStatus(String status)
+   {
+      if (status.equals(this.status))
+         return;
+      this.status = status;
+      repaint(textBounds());
+   }
+
+   void setScores(int computer, int human)
+   {
+      String computerText = "Computer Score: " + computer;
+      String humanText = "Your Score: " + human;
+      if (computerText.equals(computerScore) && humanText.equals(humanScore))
+         return;
+      computerScore = computerText;
+      humanScore = humanText;
+      repaint(textBounds());
+   }
+
+   void setSelectedCard(int cardIndex)
+   {
+      if (cardIndex == selectedCard)
+         return;
+      if (selectedCard >= 0)
+         repaint(outline(humanCardBounds(selectedCard)));
+      selectedCard = cardIndex;
+      if (cardIndex >= 0)
+         repaint(outline(humanCardBounds(cardIndex)));
+   }
+
+   void setPlayable(boolean[] cards, int numCards)
+   {
+      for (int index = 0; index < numCards && index < numHumanCards; index++)
+      {
+         if (playable[index] == cards[index])
+            continue;
+         playable[index] = cards[index];
+         repaint(outline(humanCardBounds(index)));
+      }
+   }
+
+   void setTargetStacks(int stackBits)
+   {
+      int changed = stackBits ^ targetStacks;
+      targetStacks = stackBits;
+      for (int index = 0; index < stackIcons.length; index++)
+         if ((changed & 1 << index) != 0)
+            repaint(outline(stackBounds(index)));
+   }
+
+   @Override
+   protected void paintComponent(Graphics graphics)
+   {
+      Graphics2D g = (Graphics2D) graphics;
+      Rectangle clip = g.getClipBounds();
+      if (clip == null)
+         clip = new Rectangle(0, 0, getWidth(), getHeight());
+
+      g.setColor(background);
+      g.fillRect(clip.x, clip.y, clip.width, clip.height);
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+         RenderingHints.VALUE_ANTIALIAS_ON);
+      g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+         RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+      // titles
+      g.setColor(text);
+      g.drawString("Computer", MARGIN, computerRowTop() - 4);
+      g.drawString("Community", MARGIN, middleTop() - 4);
+      g.drawString("You", MARGIN, humanRowTop() - 4);
+
+      for (int index = 0; index < numComputerCards; index++)
+         paintCard(g, clip, computerIcon, computerCardBounds(index),
+            visibleWidth(index, numComputerCards), null);
+
+      if (deckIcon != null)
+         paintCard(g, clip, deckIcon, deckBounds(), CARD_WIDTH, null);
+      for (int index = 0; index < stackIcons.length; index++)
+         paintCard(g, clip, stackIcons[index], stackBounds(index),
+            CARD_WIDTH, (targetStacks & 1 << index) != 0 ? playableColor
+               : null);
+
+      // the selected card is painted last, so its outline is on top
+      for (int index = 0; index < numHumanCards; index++)
+         if (index != selectedCard)
+            paintCard(g, clip, humanIcons[index], humanCardBounds(index),
+               visibleWidth(index, numHumanCards),
+               playable[index] ? playableColor : null);
+      if (selectedCard >= 0 && selectedCard < numHumanCards)
+         paintCard(g, clip, humanIcons[selectedCard],
+            humanCardBounds(selectedCard), CARD_WIDTH, selectedColor);
+
+      Rectangle side = textBounds();
+      if (clip.intersects(side))
+      {
+         g.setColor(text);
+         FontMetrics metrics = g.getFontMetrics();
+         int line = metrics.getHeight();
+         int y = side.y + line;
+         g.drawString(computerScore, side.x, y);
+         g.drawString(humanScore, side.x, y + line);
+         g.drawString(status, side.x, y + 3 * line);
+      }
+   }
+
+   /**
+    * Paints the visible part of one card, a card under the next one of an
+    * overlapped hand only shows the strip up to the next card
+    */
+   private void paintCard(Graphics2D g, Rectangle clip, Icon icon,
+      Rectangle bounds, int visibleWidth, Color outline)
+   {
+      Rectangle shown = new Rectangle(bounds.x, bounds.y,
+         Math.min(visibleWidth, bounds.width), bounds.height);
+      if (outline != null)
+         shown = outline(shown);
+      if (icon == null || !clip.intersects(shown))
+         return;
+
+      Shape oldClip = g.getClip();
+      g.clipRect(shown.x, shown.y, shown.width, shown.height);
+      icon.paintIcon(this, g, bounds.x, bounds.y);
+      if (outline != null)
+      {
+         g.setColor(outline);
+         g.setStroke(OUTLINE);
+         g.drawRoundRect(bounds.x - 1, bounds.y - 1, bounds.width + 1,
+            bounds.height + 1, ARC, ARC);
+      }
+      g.setClip(oldClip);
+   }
+
+   // fires the command of the card or stack under the click
+   private void click(int x, int y)
+   {
+      if (listener == null)
+         return;
+
+      int command = -1;
+      // the selected card lies on top, then later cards on earlier ones
+      if (selectedCard >= 0 && selectedCard < numHumanCards
+         && humanCardBounds(selectedCard).contains(x, y))
+         command = selectedCard;
+      for (int index = numHumanCards - 1; index >= 0 && command < 0; index--)
+         if (humanCardBounds(index).contains(x, y))
+            command = index;
+      for (int index = 0; index < stackIcons.length && command < 0; index++)
+         if (stackBounds(index).contains(x, y))
+            command = index + BuildView.STACK_BASE_INDEX;
+      if (command < 0)
+         return;
+
+      listener.actionPerformed(new ActionEvent(this,
+         ActionEvent.ACTION_PERFORMED, Integer.toString(command)));
+   }
+
+   // geometry, everything follows from the size of the component
+
+   private int computerRowTop()
+   {
+      return MARGIN + TITLE;
+   }
+
+   private int middleTop()
+   {
+      return computerRowTop() + CARD_HEIGHT + MARGIN + TITLE;
+   }
+
+   private int humanRowTop()
+   {
+      return Math.max(middleTop() + CARD_HEIGHT + MARGIN + TITLE,
+         getHeight() - MARGIN - CARD_HEIGHT);
+   }
+
+   // the left edge of a card of a hand. The cards are side by side if they
+   // fit, otherwise they overlap and spread over the row so the last one
+   // still ends at the right margin, however many there are.
+   private int handCardX(int index, int numCards)
+   {
+      int room = Math.max(0, getWidth() - 2 * MARGIN - CARD_WIDTH);
+      int step = CARD_WIDTH + GAP;
+      if (numCards > 1 && (long) (numCards - 1) * step > room)
+         return MARGIN + (int) ((long) room * index / (numCards - 1));
+      int handWidth = Math.max(0, numCards - 1) * step + CARD_WIDTH;
+      return Math.max(MARGIN, (getWidth() - handWidth) / 2) + index * step;
+   }
+
+   // how much of a card shows before the next one covers it
+   private int visibleWidth(int index, int numCards)
+   {
+      if (index + 1 >= numCards)
+         return CARD_WIDTH;
+      return handCardX(index + 1, numCards) - handCardX(index, numCards);
+   }
+
+   private Rectangle handCardBounds(int top, int index, int numCards)
+   {
+      return new Rectangle(handCardX(index, numCards), top, CARD_WIDTH,
+         CARD_HEIGHT);
+   }
+
+   private Rectangle computerCardBounds(int index)
+   {
+      return handCardBounds(computerRowTop(), index, numComputerCards);
+   }
+
+   private Rectangle humanCardBounds(int index)
+   {
+      return handCardBounds(humanRowTop(), index, numHumanCards);
+   }
+
+   private Rectangle stackBounds(int index)
+   {
+      int width = stackIcons.length * (CARD_WIDTH + GAP) - GAP;
+      int left = (getWidth() - width) / 2;
+      return new Rectangle(left + index * (CARD_WIDTH + GAP), middleTop(),
+         CARD_WIDTH, CARD_HEIGHT);
+   }
+
+   private Rectangle deckBounds()
+   {
+      return new Rectangle(MARGIN + (SIDE_WIDTH - CARD_WIDTH) / 2,
+         middleTop(), CARD_WIDTH, CARD_HEIGHT);
+   }
+
+   private Rectangle textBounds()
+   {
+      return new Rectangle(getWidth() - MARGIN - SIDE_WIDTH, middleTop(),
+         SIDE_WIDTH, CARD_HEIGHT);
+   }
+
+   private Rectangle middleBounds()
+   {
+      return new Rectangle(0, middleTop() - TITLE, getWidth(), CARD_HEIGHT
+         + TITLE + MARGIN);
+   }
+
+   private Rectangle rowBounds(int top)
+   {
+      return new Rectangle(0, top - MARGIN / 2, getWidth(), CARD_HEIGHT
+         + MARGIN);
+   }
+
+   // a card's bounds with room for its outline
+   private static Rectangle outline(Rectangle bounds)
+   {
+      return new Rectangle(bounds.x - 3, bounds.y - 3, bounds.width + 6,
+         bounds.height + 6);
+   }
+}
@@ -2,6 +2,7 @@ import java.awt.*;
 import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.event.*;
+import java.util.Arrays;
 
 /****************************************************************
  * GameView
@@ -16,6 +17,7 @@ public class BuildView
    public static final int COMP_INDEX = 0;
    public static final int STACK_BASE_INDEX = 100;
    public static final int BUTTON_INDEX = 200;
+   public static final int AUTO_PASS_INDEX = 201;
    public static final int TIMER_BUTTON_INDEX = 50;
 
    private int numCardsPerHand;
@@ -32,11 +34,21 @@ public class BuildView
    private JPanel scorePanel;
    private JPanel theDeckPanel;
 
-   private JLabel[] computerLabels;
+   // the hands scroll sideways and only paint the cards on screen
+   private HandStrip computerStrip;
    private JButton[] stackButtons; 
-   private JButton[] humanCardButtons;
+   private HandStrip humanStrip;
    private JFrame myCardTable;
 
+   // paints the whole table in one component, null for the buttons
+   private BuildTablePanel table;
+   private boolean painted;
+
+   // the card the human picked and the stacks it fits on
+   private int selectedCard = -1;
+   private Border stackBorder;
+   private JButton passButton;
+
    //Experimental by Dan
    private TimerLabel autoTimer; 
    private JButton timerButton;
@@ -44,6 +56,26 @@ public class BuildView
    private Color pokerGreen = new Color(53,101,77);
    private Color gold = new Color(228,131,0);
    private Color ruby = new Color(88,7,37);
+   private Color mint = new Color(140,230,150);
+
+   // borders are shared and only set on a stack whose state changed
+   private Border targetBorder = BorderFactory.createLineBorder(mint, 4);
+
+   // labels reused every turn, only their text changes
+   private JLabel statusLabel;
+   private JLabel compScoreLabel;
+   private JLabel humanScoreLabel;
+
+   // updates of one turn share one layout, see refresh
+   private boolean layoutChanged = false;
+   private boolean refreshPending = false;
+
+   // -Dbuild.latency=true prints the time from a click to its paint
+   private static final boolean MEASURE_LATENCY = Boolean.getBoolean(
+      "build.latency");
+   private long inputNanos = 0;
+   private long latencyCount = 0;
+   private double latencySumMillis = 0;
 
   /**
    * Recives the timer from the controller
@@ -72,10 +104,22 @@ public class BuildView
     * @param numPlayers
     */
    public BuildView(int numCardsPerHand, int numPlayers, int numStacks)
+   {
+      this(numCardsPerHand, numPlayers, numStacks, false);
+   }
+
+   /**
+    * @param painted true to paint the cards, stacks and scores in one
+    *                BuildTablePanel instead of a button or label per card,
+    *                for large hands
+    */
+   public BuildView(int numCardsPerHand, int numPlayers, int numStacks,
+      boolean painted)
    {
       this.numCardsPerHand = numCardsPerHand;
       //this.numPlayers = numPlayers;
       this.numStacks = numStacks;
+      this.painted = painted;
    }
 
    /**
@@ -83,9 +127,7 @@ public class BuildView
     */
    public void createTable()
    {
-      computerLabels = new JLabel[numCardsPerHand];
       stackButtons  = new JButton[numStacks]; 
-      humanCardButtons = new JButton[numCardsPerHand];
 
       // Establish main frame in which program will run
       myCardTable = new JFrame("Build Game");
@@ -96,6 +138,12 @@ public class BuildView
       myCardTable.setLocationRelativeTo(null);
       myCardTable.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
+      if (painted)
+      {
+         createPaintedTable();
+         return;
+      }
+
       // field panels defined
       pnlComputerHand = new JPanel();
       pnlHumanHand = new JPanel();
@@ -103,8 +151,15 @@ public class BuildView
 
       // Set up layout for panels
       pnlPlayArea.setLayout(new BorderLayout());
-      pnlHumanHand.setLayout(new FlowLayout(FlowLayout.CENTER));
-      pnlComputerHand.setLayout(new FlowLayout(FlowLayout.CENTER));
+      pnlHumanHand.setLayout(new BorderLayout());
+      pnlComputerHand.setLayout(new BorderLayout());
+
+      // the hands, the human's also answers the keys
+      computerStrip = new HandStrip(pokerGreen, null, null, null);
+      humanStrip = new HandStrip(pokerGreen, mint, Color.orange,
+         Color.white);
+      pnlComputerHand.add(computerStrip.createScrollPane());
+      pnlHumanHand.add(humanStrip.createScrollPane());
 
       // define panels for the play area
       stackPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
@@ -155,12 +210,31 @@ public class BuildView
       myCardTable.setVisible(true);
    }
 
+   /**
+    * The table as one painted component, only the buttons and the timer
+    * are left as Swing components below it
+    */
+   private void createPaintedTable()
+   {
+      table = new BuildTablePanel(pokerGreen, gold, mint, Color.orange);
+      humanPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+      humanPanel.setBackground(pokerGreen);
+
+      myCardTable.add(table, BorderLayout.CENTER);
+      myCardTable.add(humanPanel, BorderLayout.SOUTH);
+
+      // show everything to the user
+      myCardTable.setVisible(true);
+   }
+
    public void createComputerStatus()
    {
+      if (table != null)
+         return; // the status is painted
       computerPanel.setVisible(false);
-      JLabel status = new JLabel("Computer Status", JLabel.CENTER);
-      status.setForeground(gold);
-      computerPanel.add(status);
+      statusLabel = new JLabel("Computer Status", JLabel.CENTER);
+      statusLabel.setForeground(gold);
+      computerPanel.add(statusLabel);
       computerPanel.setVisible(true);
    }
 
@@ -174,6 +248,15 @@ public class BuildView
       button.setActionCommand(Integer.toString(BUTTON_INDEX));
       button.addActionListener(buttonListener);
       humanPanel.add(button);
+      passButton = button;
+
+      // pass by itself whenever no card fits
+      JCheckBox autoPass = new JCheckBox("Auto-pass");
+      autoPass.setForeground(gold);
+      autoPass.setBackground(pokerGreen);
+      autoPass.setActionCommand(Integer.toString(AUTO_PASS_INDEX));
+      autoPass.addActionListener(buttonListener);
+      humanPanel.add(autoPass);
 
       timerButton.addActionListener(buttonListener);
       timerButton.setText("Start/Stop Timer");
@@ -187,86 +270,81 @@ public class BuildView
    }
 
    /**
-    * Creates and displays the card labels on the computer panel
+    * Shows the computer's cards face down on the computer panel
     * @param icon
     * @param numCompCards
     */
    public void createCompLabels(Icon icon, int numCompCards)
    {
-      // Clear any old data 
-      pnlComputerHand.removeAll();
-      pnlComputerHand.setVisible(false);
-
-      // Create the labels
-      for (int card = 0; card < numCompCards; card++)
-      {
-         // Create back labels for all the computer's cards 
-         computerLabels[card] = new JLabel(icon);
-
-         // add computer's card labels to the table
-         pnlComputerHand.add(computerLabels[card]);
-      }
-      myCardTable.setVisible(true);
-      pnlComputerHand.setVisible(true);
+      if (table != null)
+         table.setComputerCards(icon, numCompCards);
+      else
+         computerStrip.setBackCards(icon, numCompCards);
+      refresh();
    }
 
    public void updateCompStatus(String status)
    {
-      computerPanel.setVisible(false);
-      computerPanel.removeAll();
-      JLabel label = new JLabel(status, JLabel.CENTER);
-      label.setForeground(gold);
-      computerPanel.add(label);
-      computerPanel.setVisible(true);
+      if (table != null)
+      {
+         table.setStatus(status);
+         refresh();
+         return;
+      }
+      statusLabel.setText(status);
+      refresh();
    }
 
    /**
-    * Creates and displays the card buttons on the human panel
+    * Shows the human's cards on the human panel, a click on one fires its
+    * index
     * @param cardIcons
     * @param buttonListener
     */
    public void createHumanLabels(Icon[] cardIcons, ActionListener buttonListener)
    {
-      // Clear any old data 
-      pnlHumanHand.removeAll();
-      pnlHumanHand.setVisible(false);
-
-      // Create the buttons for each card
-      for (int index = 0; index < cardIcons.length; index++)
+      selectedCard = -1;
+      if (table != null)
       {
-         // Create buttons for each of the human cards
-         humanCardButtons[index] = new JButton(cardIcons[index]);
-         humanCardButtons[index].setPreferredSize(new Dimension(73,97));
-         humanCardButtons[index].setBorder(BorderFactory.createLineBorder(Color.black));
-         humanCardButtons[index].setActionCommand(Integer.toString(index));
-         humanCardButtons[index].addActionListener(buttonListener);
-
-         // add human's card buttons to the table
-         pnlHumanHand.add(humanCardButtons[index]);
+         table.setActionListener(buttonListener);
+         table.setHumanCards(cardIcons);
       }
-      myCardTable.setVisible(true);
-      pnlHumanHand.setVisible(true);
+      else
+      {
+         humanStrip.setActionListener(buttonListener);
+         humanStrip.setCards(cardIcons);
+      }
+      refresh();
    }
 
    public void createStackButton(Icon[] cardIcons, ActionListener buttonListener)
    {
-      // Clear any old data 
-      stackPanel.removeAll();
-      stackPanel.setVisible(false);
+      if (table != null)
+      {
+         table.setActionListener(buttonListener);
+         table.setStacks(cardIcons);
+         refresh();
+         return;
+      }
 
-      // Create the buttons for each card
+      // Create the buttons the first time, then only change the icons
       for (int index = 0; index < cardIcons.length; index++)
       {
-         // Create buttons for each of the stack buttons
-         stackButtons[index] = new JButton(cardIcons[index]);
-         stackButtons[index].setPreferredSize(new Dimension(73,97));
-         stackButtons[index].setActionCommand(Integer.toString(index + STACK_BASE_INDEX));
-         stackButtons[index].addActionListener(buttonListener);
-
-         stackPanel.add(stackButtons[index]);
+         if (stackButtons[index] == null)
+         {
+            // Create buttons for each of the stack buttons
+            stackButtons[index] = new JButton(cardIcons[index]);
+            stackButtons[index].setPreferredSize(new Dimension(73,97));
+            stackButtons[index].setActionCommand(Integer.toString(index + STACK_BASE_INDEX));
+            stackButtons[index].addActionListener(buttonListener);
+            stackBorder = stackButtons[index].getBorder();
+
+            stackPanel.add(stackButtons[index]);
+            layoutChanged = true;
+         }
+         showSlot(stackButtons[index], cardIcons[index]);
       }
-      myCardTable.setVisible(true);
-      stackPanel.setVisible(true);
+      refresh();
    }
 
    /**
@@ -275,6 +353,11 @@ public class BuildView
     */
    public void createDeckLabels(Icon deckImage)
    {
+      if (table != null)
+      {
+         table.setDeck(deckImage);
+         return;
+      }
       theDeckPanel.add(new JLabel(deckImage));
       theDeckPanel.setVisible(true);
    }
@@ -283,50 +366,198 @@ public class BuildView
     */
    public void clearDeckLabels()
    {
+      if (table != null)
+      {
+         table.setDeck(null);
+         return;
+      }
       theDeckPanel.removeAll();
       theDeckPanel.setVisible(false);
    }
 
    public void createScoreLabels(int compScore, int humScore)
    {
-      scorePanel.removeAll();
-      scorePanel.setVisible(false);
+      if (table != null)
+      {
+         if (autoTimer.getParent() == null)
+         {
+            autoTimer.setForeground(Color.WHITE);
+            humanPanel.add(autoTimer);
+            layoutChanged = true;
+         }
+         table.setScores(compScore, humScore);
+         refresh();
+         return;
+      }
+
+      String text = "   Computer Score: " + compScore + "     ";
+      String text1 = "Your Score: " + humScore;
+      if (compScoreLabel != null)
+      {
+         // only the numbers change
+         compScoreLabel.setText(text);
+         humanScoreLabel.setText(text1);
+         refresh();
+         return;
+      }
+
       scorePanel.setBackground(pokerGreen);
 
       autoTimer.setForeground(Color.WHITE);
       //autoTimer.setText(threadCount.run());
       scorePanel.add(autoTimer);
 
-      String text = "   Computer Score: " + compScore + "     ";
-      JLabel compLabel = new JLabel(text, JLabel.CENTER);
-      compLabel.setForeground(gold);
-      scorePanel.add(compLabel);
+      compScoreLabel = new JLabel(text, JLabel.CENTER);
+      compScoreLabel.setForeground(gold);
+      scorePanel.add(compScoreLabel);
 
-      String text1 = "Your Score: " + humScore;
-      JLabel humLabel = new JLabel(text1, JLabel.CENTER);
-      humLabel.setForeground(gold);
-      scorePanel.add(humLabel);
+      humanScoreLabel = new JLabel(text1, JLabel.CENTER);
+      humanScoreLabel.setForeground(gold);
+      scorePanel.add(humanScoreLabel);
 
-      scorePanel.setVisible(true);
+      layoutChanged = true;
+      refresh();
    }
 
    public void changeStackIcon(int stackIndex, Icon stackIcon)
    {
-      stackPanel.setVisible(false);
-      stackButtons[stackIndex].setIcon(stackIcon);
-      //stackPanel.setLayout(new FlowLayout(FlowLayout.CENTER));
-      stackPanel.setVisible(true);
+      if (table != null)
+      {
+         table.setStack(stackIndex, stackIcon);
+         refresh();
+         return;
+      }
+      showSlot(stackButtons[stackIndex], stackIcon);
+      refresh();
    }
 
    public void highlightCard(int cardIndex)
    {
-      humanCardButtons[cardIndex].setBorder(BorderFactory.createMatteBorder(
-         1, 5, 5, 1, Color.orange));
+      selectedCard = cardIndex;
+      if (table != null)
+         table.setSelectedCard(cardIndex);
+      else
+         humanStrip.setSelectedCard(cardIndex);
+      refresh();
    }
 
    public void unhighlightCard(int cardIndex)
    {
-      humanCardButtons[cardIndex].setBorder(BorderFactory.createLineBorder(Color.black));
+      if (selectedCard == cardIndex)
+         selectedCard = -1;
+      if (table != null)
+         table.setSelectedCard(selectedCard);
+      else
+         humanStrip.setSelectedCard(selectedCard);
+      refresh();
+   }
+
+   /**
+    * Marks the cards of the human that fit on a stack
+    * @param playable playable[i] is true if card i fits
+    * @param numCards the number of cards in the hand
+    */
+   public void showPlayableCards(boolean[] playable, int numCards)
+   {
+      if (table != null)
+         table.setPlayable(playable, numCards);
+      else
+         humanStrip.setPlayable(playable, numCards);
+      refresh();
+   }
+
+   /**
+    * Marks the stacks the selected card fits on
+    * @param stackBits bit i is set if the card fits on stack i
+    */
+   public void showTargetStacks(int stackBits)
+   {
+      if (table != null)
+      {
+         table.setTargetStacks(stackBits);
+         refresh();
+         return;
+      }
+      for (int index = 0; index < numStacks; index++)
+         setBorder(stackButtons[index], (stackBits & 1 << index) != 0
+            ? targetBorder : stackBorder);
+      refresh();
+   }
+
+   /**
+    * Points the human to the pass button when no card fits
+    * @param offer true if the human has no play
+    */
+   public void offerPass(boolean offer)
+   {
+      passButton.setText(offer ? "No play - pass" : "I can't play");
+      passButton.setForeground(offer ? ruby : Color.black);
+      refresh();
+   }
+
+   /**
+    * Notes the time of a click, with -Dbuild.latency=true the time until it
+    * is painted is printed
+    */
+   public void markInput()
+   {
+      if (MEASURE_LATENCY)
+         inputNanos = System.nanoTime();
+   }
+
+   // setting the same icon or border again repaints nothing
+   private void showSlot(AbstractButton button, Icon icon)
+   {
+      if (button.getIcon() != icon)
+         button.setIcon(icon);
+      if (!button.isVisible())
+      {
+         button.setVisible(true);
+         layoutChanged = true;
+      }
+   }
+
+   private void setBorder(JComponent component, Border border)
+   {
+      if (component.getBorder() != border)
+         component.setBorder(border);
+   }
+
+   /**
+    * Lays out the table once for all the changes made while handling one
+    * event. Icons, borders and text repaint only their own component, the
+    * layout is only redone if a component was added or shown.
+    */
+   private void refresh()
+   {
+      if (refreshPending)
+         return;
+      refreshPending = true;
+      SwingUtilities.invokeLater(() ->
+      {
+         refreshPending = false;
+         if (layoutChanged)
+         {
+            layoutChanged = false;
+            myCardTable.getContentPane().revalidate();
+            myCardTable.getContentPane().repaint();
+         }
+         if (MEASURE_LATENCY && inputNanos != 0)
+            reportLatency();
+      });
+   }
+
+   // paints what is dirty now and prints the time since the click
+   private void reportLatency()
+   {
+      RepaintManager.currentManager(myCardTable).paintDirtyRegions();
+      double millis = (System.nanoTime() - inputNanos) / 1e6;
+      inputNanos = 0;
+      latencyCount++;
+      latencySumMillis += millis;
+      System.out.println(String.format(
+         "click to paint %.2f ms (mean %.2f ms over %d)", millis,
+         latencySumMillis / latencyCount, latencyCount));
    }
 
    /**
@@ -373,7 +604,7 @@ public class BuildView
 @SuppressWarnings("serial")
 class TimerLabel extends JLabel 
 {
-   Timer timerCount;
+   private final GameClock clock = new GameClock(this);
    private JButton timerButton = new JButton();
 
    /**
@@ -389,13 +620,13 @@ class TimerLabel extends JLabel
    /**
     * constuctor allows creation of start of time 
     */
-   public TimerLabel(boolean startTimerNow, Timer timerCount)
+   public TimerLabel(boolean startTimerNow)
    {
       this(); //call to the default constructor
      
       if (startTimerNow)
       {
-         timerCount.start();
+         clock.start();
       }
    }
 
@@ -408,12 +639,20 @@ class TimerLabel extends JLabel
       return timerButton;
    }
 
+   /**
+    * @return the clock counting on this label
+    */
+   public GameClock getClock()
+   {
+      return clock;
+   }
+
    /**
     * resets timer to 0s
     */
    public boolean resetTimer()
    {
-      this.timerCount.resetSec(0);
+      clock.reset();
       return true;
    }
-}
\ No newline at end of file
+}
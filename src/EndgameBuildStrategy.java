@@ -0,0 +1,624 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/****************************************************************
+ * EndgameBuildStrategy
+ *
+ * Description: Searches the end of a two player game of "BUILD" when only
+ *              a few cards are left in the deck. Over and over until the
+ *              time budget is used up, it guesses the other hand, then
+ *              searches every play and pass to the end of the game, each
+ *              draw from the deck weighted by the copies left of the card
+ *              (expectimax). The search goes one turn deeper at a time until
+ *              the game is solved. Positions already searched are found in
+ *              a transposition table shared by the threads and kept from
+ *              move to move.
+ * Usage:       new EndgameBuildStrategy(new MonteCarloBuildStrategy(ms), ms)
+ *              plays like the given strategy until the endgame
+ *****************************************************************/
+
+public class EndgameBuildStrategy implements BuildStrategy
+{
+   // the search starts when the deck has this many cards or fewer
+   public static final int ENDGAME_CARDS = 6;
+
+   private static final int TABLE_BITS = 20; // 2^20 entries of 16 bytes
+
+   private final BuildStrategy fallback;
+   private final long budgetNanos;
+   private final int threads;
+   private final ForkJoinPool pool;
+   private final TranspositionTable table;
+
+   /**
+    * Searches on the common pool
+    *
+    * @param fallback     plays the moves before the endgame
+    * @param budgetMillis the time to think about a move
+    */
+   public EndgameBuildStrategy(BuildStrategy fallback, long budgetMillis)
+   {
+      this(fallback, budgetMillis, ForkJoinPool.commonPool(), TABLE_BITS);
+   }
+
+   /**
+    * @param fallback     plays the moves before the endgame
+    * @param budgetMillis the time to think about a move
+    * @param pool         searches, one worker per thread of the pool. The
+    *                     caller owns it, the strategy never shuts it down.
+    * @param tableBits    the table has 2^tableBits entries
+    */
+   public EndgameBuildStrategy(BuildStrategy fallback, long budgetMillis,
+      ForkJoinPool pool, int tableBits)
+   {
+      if (budgetMillis < 0)
+         budgetMillis = 0;
+
+      this.fallback = fallback;
+      this.budgetNanos = budgetMillis * 1_000_000L;
+      this.threads = Math.max(1, pool.getParallelism());
+      this.pool = pool;
+      this.table = new TranspositionTable(tableBits);
+   }
+
+   @Override
+   public int chooseMove(BuildEngine engine, int player)
+   {
+      if (engine.getNumPlayers() != 2
+         || engine.getNumCardsRemainingInDeck() > ENDGAME_CARDS)
+         return fallback.chooseMove(engine, player);
+
+      int[] moves = new int[engine.getNumCardsInHand(player)
+         * BuildEngine.NUM_STACKS + 1];
+      int numMoves = engine.legalMoves(player, moves);
+
+      // the search does not tell suits or stacks apart, keep one move for
+      // each rank played on each rank
+      Hand hand = engine.getHand(player);
+      Card[] stacks = engine.getStack();
+      int[] keys = new int[numMoves + 1];
+      boolean[] seen = new boolean[Card.NUM_RANKS * Card.NUM_RANKS];
+      int kept = 0;
+      for (int m = 0; m < numMoves; m++)
+      {
+         int key = BuildSearchState.playKey(hand.inspectCard(moves[m]
+            / BuildEngine.NUM_STACKS), stacks[moves[m]
+               % BuildEngine.NUM_STACKS]);
+         if (!seen[key])
+         {
+            seen[key] = true;
+            keys[kept] = key;
+            moves[kept++] = moves[m];
+         }
+      }
+      numMoves = kept;
+      keys[numMoves] = BuildEngine.PASS;
+      moves[numMoves++] = BuildEngine.PASS;
+      if (numMoves == 1)
+         return BuildEngine.PASS;
+      final int[] searched = Arrays.copyOf(keys, numMoves);
+
+      final BuildEngine root = new BuildEngine(engine);
+      final long deadline = System.nanoTime() + budgetNanos;
+      List<Callable<double[]>> workers = new ArrayList<>();
+      for (int t = 0; t < threads; t++)
+         workers.add(() -> search(root, player, searched, deadline));
+
+      // totals[m] is the sum of the values of move m, the last one counts
+      // the guesses
+      double[] totals = new double[numMoves + 1];
+      // once the search gave up the budget is spent, so the move is greedy,
+      // the fallback would think for a whole budget of its own
+      try
+      {
+         for (Future<double[]> result : pool.invokeAll(workers))
+         {
+            double[] part = result.get();
+            for (int m = 0; m <= numMoves; m++)
+               totals[m] += part[m];
+         }
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         return new GreedyBuildStrategy().chooseMove(engine, player);
+      }
+      catch (ExecutionException e)
+      {
+         // a bug in the search should not stop the game
+         return new GreedyBuildStrategy().chooseMove(engine, player);
+      }
+      if (totals[numMoves] == 0) // no time for depth 1
+         return new GreedyBuildStrategy().chooseMove(engine, player);
+
+      // values are score 1 minus score 0, player 0 wants them high
+      int sign = player == 0 ? 1 : -1;
+      int best = 0;
+      for (int m = 1; m < numMoves; m++)
+         if (sign * totals[m] > sign * totals[best])
+            best = m;
+      return moves[best];
+   }
+
+   /**
+    * Searches every move on new guesses of the other hand until the
+    * deadline. Each guess is searched one turn deeper at a time until the
+    * game is solved, the table makes the searches before it cheap.
+    *
+    * @return the sum of the values of each move, then the number of guesses
+    */
+   private double[] search(BuildEngine root, int player, int[] keys,
+      long deadline)
+   {
+      BuildEngine guess = new BuildEngine(root);
+      BuildSearchState state = new BuildSearchState(table, deadline);
+      double[] totals = new double[keys.length + 1];
+      double[] values = new double[keys.length];
+
+      do
+      {
+         guess.copyFrom(root);
+         guess.redealHiddenCards(player);
+         state.load(guess);
+         // an unfinished guess only counts if there is no other
+         if (!deepen(state, keys, values, totals[keys.length] == 0))
+            break;
+         for (int m = 0; m < keys.length; m++)
+            totals[m] += values[m];
+         totals[keys.length]++;
+      } while (System.nanoTime() < deadline);
+
+      return totals;
+   }
+
+   /**
+    * Searches every move one turn deeper at a time until the game is solved
+    *
+    * @param values  gets the values of the deepest search that finished
+    * @param partial true if a search cut short by the deadline is good
+    *                enough
+    * @return true if values were found
+    */
+   private static boolean deepen(BuildSearchState state, int[] keys,
+      double[] values, boolean partial)
+   {
+      boolean found = false;
+      double[] next = new double[keys.length];
+      for (int depth = 1; depth <= BuildSearchState.MAX_DEPTH; depth++)
+      {
+         long cutoffs = state.getCutoffs();
+         try
+         {
+            for (int m = 0; m < keys.length; m++)
+               next[m] = state.moveValue(keys[m], depth);
+         }
+         catch (BuildSearchState.Timeout e)
+         {
+            return found && partial;
+         }
+
+         System.arraycopy(next, 0, values, 0, keys.length);
+         found = true;
+         if (state.getCutoffs() == cutoffs)
+            break; // solved
+      }
+      return true;
+   }
+}
+
+/****************************************************************
+ * BuildSearchState
+ *
+ * Description: A two player position of "BUILD" as it matters to the rules.
+ *              Cards only fit by rank, so the suits are dropped, and the
+ *              stacks are only different by the rank on top, so their order
+ *              is dropped too. What is left is the count of each rank in
+ *              each hand, in the deck and on the stacks, the player to move
+ *              and the passes in a row. Positions that differ only by suits
+ *              or by which stack is where are the same position here, with
+ *              the same Zobrist hash, updated with every change. Values are
+ *              the points player 1 will get minus the points player 0 will
+ *              get from here on.
+ *****************************************************************/
+
+class BuildSearchState
+{
+   static final int MAX_DEPTH = 64;
+
+   private static final int NUM_PLAYERS = 2;
+   private static final int DECK = NUM_PLAYERS; // zones after the hands
+   private static final int STACKS = NUM_PLAYERS + 1;
+   private static final int NUM_ZONES = NUM_PLAYERS + 2;
+   private static final int MAX_COPIES = Deck.MAX_CARDS / Deck.ONE_PACK
+      * Card.NUM_SUITS; // of one rank
+   private static final int RANK_BITS = 4; // holds a rank + 1
+   private static final int CHECK_CLOCK = 1023; // nodes between clock reads
+
+   // ZOBRIST_COUNT[zone][rank][n] marks the n-th card of the rank
+   private static final long[][][] ZOBRIST_COUNT =
+      new long[NUM_ZONES][Card.NUM_RANKS][MAX_COPIES + 1];
+   private static final long[] ZOBRIST_TURN = new long[NUM_PLAYERS];
+   private static final long[] ZOBRIST_PASSES = new long[NUM_PLAYERS];
+
+   // bit r is set for the ranks next to rank r
+   private static final int[] ADJACENT_RANKS = new int[Card.NUM_RANKS];
+
+   static
+   {
+      SplittableRandom random = new SplittableRandom(0x5EED);
+      for (long[][] zone : ZOBRIST_COUNT)
+         for (long[] rank : zone)
+            for (int n = 1; n <= MAX_COPIES; n++)
+               rank[n] = random.nextLong();
+      for (int k = 0; k < NUM_PLAYERS; k++)
+      {
+         ZOBRIST_TURN[k] = random.nextLong();
+         ZOBRIST_PASSES[k] = random.nextLong();
+      }
+
+      for (int rank = 0; rank < Card.NUM_RANKS; rank++)
+      {
+         if (rank > 0)
+            ADJACENT_RANKS[rank] |= 1 << (rank - 1);
+         if (rank < Card.NUM_RANKS - 1)
+            ADJACENT_RANKS[rank] |= 1 << (rank + 1);
+      }
+   }
+
+   /**
+    * Thrown when the deadline passes, the search is abandoned
+    */
+   static final class Timeout extends RuntimeException
+   {
+      private static final long serialVersionUID = 1L;
+
+      private Timeout()
+      {
+         super(null, null, false, false);
+      }
+   }
+
+   private static final Timeout TIMEOUT = new Timeout();
+
+   private final int[][] counts = new int[NUM_ZONES][Card.NUM_RANKS];
+   private final int[] masks = new int[NUM_ZONES]; // ranks with cards
+   private final int[] sizes = new int[NUM_ZONES];
+   private int toMove;
+   private int passes;
+   private long hash;
+
+   private final TranspositionTable table;
+   private final long deadline;
+   private long nodes;
+   private long cutoffs; // searches stopped by the depth, not the game end
+
+   /**
+    * @param table    where searched positions are kept
+    * @param deadline System.nanoTime() when the search stops
+    */
+   BuildSearchState(TranspositionTable table, long deadline)
+   {
+      this.table = table;
+      this.deadline = deadline;
+   }
+
+   /**
+    * Copies the position of a two player engine, the hands must be known
+    */
+   void load(BuildEngine engine)
+   {
+      for (int zone = 0; zone < NUM_ZONES; zone++)
+      {
+         Arrays.fill(counts[zone], 0);
+         masks[zone] = 0;
+         sizes[zone] = 0;
+      }
+      hash = 0;
+
+      for (int k = 0; k < NUM_PLAYERS; k++)
+      {
+         Hand hand = engine.getHand(k);
+         for (int i = 0; i < hand.getNumCards(); i++)
+            add(k, Card.valueAsInt(hand.inspectCard(i)));
+      }
+      for (int code = 0; code < Card.NUM_CARD_CODES; code++)
+         for (int n = engine.getDeckCardCount(Card.fromInt(code)); n > 0;
+            n--)
+            add(DECK, code / Card.NUM_SUITS);
+      for (Card card : engine.getStack())
+         if (card != null && !card.getErrorFlag())
+            add(STACKS, Card.valueAsInt(card));
+
+      toMove = engine.getPlayerToMove();
+      passes = engine.getConsecutivePasses();
+      hash ^= ZOBRIST_TURN[toMove] ^ ZOBRIST_PASSES[passes];
+   }
+
+   /**
+    * Returns the key of a play in this position. Plays with the same key
+    * lead to the same position.
+    *
+    * @param card  the card played
+    * @param onTop the card on the stack it goes on
+    */
+   static int playKey(Card card, Card onTop)
+   {
+      return Card.valueAsInt(card) * Card.NUM_RANKS + Card.valueAsInt(onTop);
+   }
+
+   /**
+    * Returns how often a search stopped at the depth limit, or used a table
+    * entry that did, so far. A search that does not change it is exact.
+    */
+   long getCutoffs()
+   {
+      return cutoffs;
+   }
+
+   /**
+    * Returns the value of a move of the player to move
+    *
+    * @param move  a playKey, or BuildEngine.PASS
+    * @param depth the number of turns to search, this one included
+    */
+   double moveValue(int move, int depth)
+   {
+      if (move == BuildEngine.PASS)
+         return passValue(depth);
+      return playValue(move / Card.NUM_RANKS, move % Card.NUM_RANKS, depth);
+   }
+
+   // the best value of the player to move, player 0 takes the highest
+   private double value(int depth)
+   {
+      if (depth == 0)
+      {
+         cutoffs++;
+         return 0;
+      }
+      if ((++nodes & CHECK_CLOCK) == 0 && System.nanoTime() > deadline)
+         throw TIMEOUT;
+
+      long entry = table.probe(hash);
+      int entryDepth = TranspositionTable.depth(entry);
+      if (entryDepth >= depth)
+      {
+         if (entryDepth != TranspositionTable.EXACT)
+            cutoffs++;
+         return TranspositionTable.value(entry);
+      }
+
+      long cutoffsBefore = cutoffs;
+      boolean maximize = toMove == 0;
+      double best = passValue(depth);
+      int hand = masks[toMove];
+      for (int onTop = masks[STACKS]; onTop != 0; onTop &= onTop - 1)
+      {
+         int stackRank = Integer.numberOfTrailingZeros(onTop);
+         for (int fits = hand & ADJACENT_RANKS[stackRank]; fits != 0;
+            fits &= fits - 1)
+         {
+            double v = playValue(Integer.numberOfTrailingZeros(fits),
+               stackRank, depth);
+            if (maximize ? v > best : v < best)
+               best = v;
+         }
+      }
+
+      table.store(hash, best, cutoffs == cutoffsBefore
+         ? TranspositionTable.EXACT : depth);
+      return best;
+   }
+
+   // the player to move puts a card of the rank on a stack showing
+   // stackRank and draws
+   private double playValue(int rank, int stackRank, int depth)
+   {
+      int player = toMove;
+      int oldPasses = passes;
+      remove(player, rank);
+      remove(STACKS, stackRank);
+      add(STACKS, rank);
+
+      // the game is over if the deck is empty, else average the draws
+      double total = 0;
+      if (sizes[DECK] > 0)
+      {
+         setTurnAndPasses(1 - player, 0);
+         for (int left = masks[DECK]; left != 0; left &= left - 1)
+         {
+            int drawn = Integer.numberOfTrailingZeros(left);
+            double weight = (double) counts[DECK][drawn] / sizes[DECK];
+            remove(DECK, drawn);
+            add(player, drawn);
+            total += weight * value(depth - 1);
+            remove(player, drawn);
+            add(DECK, drawn);
+         }
+         setTurnAndPasses(player, oldPasses);
+      }
+
+      remove(STACKS, rank);
+      add(STACKS, stackRank);
+      add(player, rank);
+      return total;
+   }
+
+   // the player to move passes for a point, the second pass in a row
+   // reloads the stacks or ends the game
+   private double passValue(int depth)
+   {
+      int player = toMove;
+      int oldPasses = passes;
+      double point = player == 0 ? -1 : 1;
+
+      if (oldPasses + 1 < NUM_PLAYERS)
+      {
+         setTurnAndPasses(1 - player, oldPasses + 1);
+         double rest = value(depth - 1);
+         setTurnAndPasses(player, oldPasses);
+         return point + rest;
+      }
+      if (sizes[DECK] < BuildEngine.NUM_STACKS)
+         return point;
+
+      // the old stack cards leave the game, remember them to undo
+      int old = 0;
+      for (int n = sizes[STACKS]; n > 0; n--)
+      {
+         int rank = Integer.numberOfTrailingZeros(masks[STACKS]);
+         remove(STACKS, rank);
+         old = old << RANK_BITS | rank + 1;
+      }
+
+      setTurnAndPasses(1 - player, 0);
+      double rest = reloadValue(0, depth);
+      setTurnAndPasses(player, oldPasses);
+
+      for (; old != 0; old >>>= RANK_BITS)
+         add(STACKS, (old & (1 << RANK_BITS) - 1) - 1);
+      return point + rest;
+   }
+
+   // averages the ranks dealt to the stacks. Only the ranks in increasing
+   // order are dealt, each set weighted by the orders it can come in.
+   private double reloadValue(int lowestRank, int depth)
+   {
+      if (sizes[STACKS] == BuildEngine.NUM_STACKS)
+         return orderings() * value(depth - 1);
+
+      int deckSize = sizes[DECK];
+      double total = 0;
+      for (int left = masks[DECK] >>> lowestRank << lowestRank; left != 0;
+         left &= left - 1)
+      {
+         int dealt = Integer.numberOfTrailingZeros(left);
+         double weight = (double) counts[DECK][dealt] / deckSize;
+         remove(DECK, dealt);
+         add(STACKS, dealt);
+         total += weight * reloadValue(dealt, depth);
+         remove(STACKS, dealt);
+         add(DECK, dealt);
+      }
+      return total;
+   }
+
+   // the number of orders the ranks on the stacks could be dealt in
+   private int orderings()
+   {
+      int orders = 1;
+      for (int n = 2; n <= BuildEngine.NUM_STACKS; n++)
+         orders *= n;
+      for (int ranks = masks[STACKS]; ranks != 0; ranks &= ranks - 1)
+         for (int n = counts[STACKS][Integer.numberOfTrailingZeros(ranks)];
+            n > 1; n--)
+            orders /= n;
+      return orders;
+   }
+
+   private void add(int zone, int rank)
+   {
+      int n = ++counts[zone][rank];
+      hash ^= ZOBRIST_COUNT[zone][rank][n];
+      masks[zone] |= 1 << rank;
+      sizes[zone]++;
+   }
+
+   private void remove(int zone, int rank)
+   {
+      int n = counts[zone][rank]--;
+      hash ^= ZOBRIST_COUNT[zone][rank][n];
+      if (n == 1)
+         masks[zone] &= ~(1 << rank);
+      sizes[zone]--;
+   }
+
+   private void setTurnAndPasses(int player, int passesInRow)
+   {
+      hash ^= ZOBRIST_TURN[toMove] ^ ZOBRIST_TURN[player]
+         ^ ZOBRIST_PASSES[passes] ^ ZOBRIST_PASSES[passesInRow];
+      toMove = player;
+      passes = passesInRow;
+   }
+}
+
+/****************************************************************
+ * TranspositionTable
+ *
+ * Description: Fixed size table of searched positions shared by threads
+ *              without locks. An entry is two longs, the key XOR the data
+ *              and the data. Two threads writing the same entry at once can
+ *              mix the halves, then the key does not match and the entry is
+ *              ignored. The data is the value as a float and the depth it
+ *              was searched to.
+ *****************************************************************/
+
+class TranspositionTable
+{
+   // the depth of an entry searched to the end of the game
+   static final int EXACT = 0xFF;
+
+   private final AtomicLongArray entries;
+   private final int shift;
+
+   /**
+    * @param bits the table has 2^bits entries
+    */
+   TranspositionTable(int bits)
+   {
+      entries = new AtomicLongArray(2 << bits);
+      shift = 64 - bits;
+   }
+
+   /**
+    * Returns the data stored for the key, 0 if there is none. Its depth is 0.
+    */
+   long probe(long key)
+   {
+      int i = index(key);
+      long data = entries.getOpaque(i + 1);
+      if ((entries.getOpaque(i) ^ data) != key)
+         return 0;
+      return data;
+   }
+
+   /**
+    * Keeps the value unless the entry has the same key and a deeper search
+    *
+    * @param depth 1 to EXACT - 1, or EXACT
+    */
+   void store(long key, double value, int depth)
+   {
+      int i = index(key);
+      long old = entries.getOpaque(i + 1);
+      if ((entries.getOpaque(i) ^ old) == key && depth(old) > depth)
+         return;
+
+      long data = (long) Float.floatToRawIntBits((float) value) << 32
+         | Math.min(depth, EXACT);
+      entries.setOpaque(i, key ^ data);
+      entries.setOpaque(i + 1, data);
+   }
+
+   static int depth(long data)
+   {
+      return (int) (data & EXACT);
+   }
+
+   static double value(long data)
+   {
+      return Float.intBitsToFloat((int) (data >>> 32));
+   }
+
+   private int index(long key)
+   {
+      return (int) (key >>> shift) << 1;
+   }
+}
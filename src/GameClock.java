@@ -0,0 +1,165 @@
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/****************************************************************
+ * GameClock
+ *
+ * Description: A stopwatch shown as mm:ss on a label. The time is read
+ *              from System.nanoTime, so it does not drift however late a
+ *              tick runs, and the label is only changed on the event
+ *              dispatch thread. Every clock of every table shares one
+ *              scheduler thread, each running clock has one tick waiting
+ *              on it for the start of its next second.
+ * Usage:       new GameClock(label), then start, pause, toggle and reset.
+ *              Pausing keeps the time, start goes on from there.
+ *****************************************************************/
+
+public class GameClock
+{
+   private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+   // the clock restarts at 0 after 100 minutes
+   private static final int ROLLOVER_SECONDS = 6000;
+
+   private static final ScheduledExecutorService SCHEDULER = Executors
+      .newSingleThreadScheduledExecutor(task ->
+      {
+         Thread thread = new Thread(task, "Game clock");
+         thread.setDaemon(true);
+         return thread;
+      });
+
+   private final JLabel label;
+
+   // time of the finished runs, and when the current run started
+   private long elapsedNanos = 0;
+   private long startNanos;
+   private boolean running = false;
+   private ScheduledFuture<?> nextTick;
+   private int tickNumber = 0; // a tick that is not the latest one is late
+   private int shownSeconds = -1;
+
+   /**
+    * @param label shows the time, it is set to 00:00 right away
+    */
+   public GameClock(JLabel label)
+   {
+      this.label = label;
+      show();
+   }
+
+   /**
+    * Starts or goes on counting, nothing happens if the clock runs
+    */
+   public synchronized void start()
+   {
+      if (running)
+         return;
+      running = true;
+      startNanos = System.nanoTime();
+      schedule();
+   }
+
+   /**
+    * Stops counting and keeps the time
+    */
+   public synchronized void pause()
+   {
+      if (!running)
+         return;
+      elapsedNanos += System.nanoTime() - startNanos;
+      running = false;
+      nextTick.cancel(false);
+      nextTick = null;
+      show();
+   }
+
+   /**
+    * Pauses a running clock and starts a paused one, for a start/stop
+    * button
+    */
+   public synchronized void toggle()
+   {
+      if (running)
+         pause();
+      else
+         start();
+   }
+
+   /**
+    * Sets the time back to 0, a running clock keeps running
+    */
+   public synchronized void reset()
+   {
+      elapsedNanos = 0;
+      startNanos = System.nanoTime();
+      if (running)
+      {
+         nextTick.cancel(false);
+         schedule();
+      }
+      show();
+   }
+
+   public synchronized boolean isRunning()
+   {
+      return running;
+   }
+
+   /**
+    * @return the whole seconds counted, before the rollover
+    */
+   public synchronized long getElapsedSeconds()
+   {
+      return elapsedNanos() / SECOND_NANOS;
+   }
+
+   /**
+    * @return the time in mm:ss format
+    */
+   public static String timeFormat(int totalSeconds)
+   {
+      int minutes = totalSeconds / 60;
+      int sec = totalSeconds - (minutes * 60);
+      return String.format("%02d:%02d", minutes, sec);
+   }
+
+   private long elapsedNanos()
+   {
+      return running ? elapsedNanos + System.nanoTime() - startNanos
+         : elapsedNanos;
+   }
+
+   // the next tick is due when the next whole second starts
+   private void schedule()
+   {
+      long delay = SECOND_NANOS - elapsedNanos() % SECOND_NANOS;
+      int number = ++tickNumber;
+      nextTick = SCHEDULER.schedule(() -> tick(number), delay,
+         TimeUnit.NANOSECONDS);
+   }
+
+   private synchronized void tick(int number)
+   {
+      if (!running || number != tickNumber)
+         return; // paused or reset while this tick was on its way
+      show();
+      schedule();
+   }
+
+   // hands the time to the event dispatch thread if the second changed
+   private void show()
+   {
+      int seconds = (int) (elapsedNanos() / SECOND_NANOS
+         % ROLLOVER_SECONDS);
+      if (seconds == shownSeconds)
+         return;
+      shownSeconds = seconds;
+      String text = timeFormat(seconds);
+      SwingUtilities.invokeLater(() -> label.setText(text));
+   }
+}
@@ -1,6 +1,9 @@
 import javax.swing.*;
 import java.awt.event.*;
 import java.awt.Font;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 
 /****************************************************************
@@ -19,6 +22,17 @@ public class GameController implements ActionListener
    private int COMP_INDEX = 0;
    private Card[] cardsInPlay; //holds the two cards that are being played
 
+   // the computer picks its card on its own thread, the model is only
+   // changed on the event dispatch thread
+   private final ExecutorService computerThread = Executors
+      .newSingleThreadExecutor(task ->
+      {
+         Thread thread = new Thread(task, "Low-Card computer");
+         thread.setDaemon(true);
+         return thread;
+      });
+   private boolean computerThinking = false; // clicks are ignored
+
    /**
     * Constructor that starts a new game using a model and a view
     * @param model
@@ -29,6 +43,8 @@ public class GameController implements ActionListener
       theModel = model;
       theView = view;
 
+      // The computer picks its card by rank from the hand's rank index, so
+      // its hand is never sorted
       theModel.startNewGame();
       theView.createTable();
       
@@ -59,15 +75,40 @@ public class GameController implements ActionListener
    @Override
    public void actionPerformed(ActionEvent e) 
    {
+      if (computerThinking)
+         return; // wait for the computer's card
+
       // Get the card that the user clicked
       String cardPlayed = e.getActionCommand();
       int cardIndex = Integer.parseInt(cardPlayed);
-     
-      
-      // Sort the computer's hand, so we can easily access the lowest card  
-      theModel.sortHand(COMP_INDEX);
-            
-      playChosenCards(cardIndex);
+
+      // the computer chooses from a copy of what it knows, the round is
+      // played back on the event dispatch thread
+      computerThinking = true;
+      long compHand = theModel.getHand(COMP_INDEX).getCardMask();
+      int[] unseen = new int[Card.NUM_RANKS];
+      theModel.getUnseenRankCounts(COMP_INDEX, unseen);
+      int humanCards = theModel.getNumCardsInHand(HUMAN_INDEX);
+      CompletableFuture
+         .supplyAsync(() -> GameModel.chooseLowCardRank(compHand, unseen,
+            humanCards), computerThread)
+         .whenComplete((compRank, error) -> SwingUtilities.invokeLater(
+            () ->
+            {
+               computerThinking = false;
+               playRound(cardIndex, error == null ? compRank
+                  : Card.lowestRank(compHand));
+            }));
+   }
+
+   /**
+    * Both players play their card, then the round winner is shown
+    * @param cardIndex the index of the human's card
+    * @param compRank the rank of the computer's card
+    */
+   private void playRound(int cardIndex, int compRank)
+   {
+      playChosenCards(cardIndex, compRank);
 
       // 0 means computer won, 1 means human won, -1 means a tie
       int winner = theModel.determineRoundWinner(
@@ -85,12 +126,13 @@ public class GameController implements ActionListener
    /**
     * Gets the playing card from each player and adds it to the card table.
     * @param int the index of the card being played
+    * @param compRank the rank of the computer's card
     */
-   private void playChosenCards(int cardIndex)
+   private void playChosenCards(int cardIndex, int compRank)
    {
       // Each player plays a card
       cardsInPlay[HUMAN_INDEX] = theModel.playCard(HUMAN_INDEX, cardIndex);
-      cardsInPlay[COMP_INDEX] = theModel.playCard(COMP_INDEX, 0);
+      cardsInPlay[COMP_INDEX] = theModel.playCardOfRank(COMP_INDEX, compRank);
       
       // Get each player's card icons to be displayed in the playing area
       Icon playerIcon = theModel.getCardIcon(cardsInPlay[HUMAN_INDEX]);
@@ -122,7 +164,7 @@ public class GameController implements ActionListener
     public static class Timer extends JLabel implements ActionListener
     {
        private JButton timerButton = new JButton();
-       private Counter threadCount = new Counter();
+       private final GameClock clock = new GameClock(this);
  
        /**
         * default constructor
@@ -142,7 +184,7 @@ public class GameController implements ActionListener
           this(); // call to the default constructor
           if (startTimerNow)
           {
-             threadCount.start();
+             clock.start();
           }
        }
  
@@ -160,126 +202,18 @@ public class GameController implements ActionListener
         */
        public boolean resetTimer()
        {
-          this.threadCount.resetSec(0);
+          clock.reset();
           return true;
        }
  
        /**
-        * action listener to start and stop the timer. "pause" functionality
+        * action listener to start and stop the timer, it goes on from where
+        * it was paused
         */
        @Override
        public void actionPerformed(ActionEvent e)
        {
-          if (threadCount.isAlive())
-          {
-             threadCount.stopThread();
-             threadCount = new Counter(threadCount.secElapsed());
-          } else
-          {
-             threadCount.start();
-          }
-       }
- 
-       /**
-        * Counter class: multi-thread of the timer 
-        */
-       public class Counter extends Thread
-       {
-          private int sec = 0;
-          private boolean threading = true;
- 
-          /**
-           * default constructor 
-           * calls the constructor of the Thread class
-           */
-          public Counter()
-          {
-             super();
-          }
- 
-          /**
-           * constructor allows the caller to initialize the thread
-           * with a start time. "pause" illusion
-           */
-          public Counter(int timeStartValue)
-          {
-             // prevents incrementation 
-             this.sec = timeStartValue - 1;
-          }
- 
-          /**
-           * updates timer
-           */
-          public void run()
-          {
-             while (threading)
-             {
-                //timer restarts to 0 after 99min
-                if (this.sec < 6000)
-                {
-                   this.sec += 1;
-                } else
-                {
-                   this.sec = 0;
-                }
-                // JLabel text
-                setText(timeFormat(sec));
-                doNothing(100); //100 millisecond pause 
-             }
-          }
- 
-          /**
-           * Added to allow Timer class to reset timer to zero.
-           */
-          public boolean resetSec(int sec)
-          {
-             this.sec = sec;
-             return true;
-          }
- 
-          /**
-           * terminates run() loop
-           */
-          public boolean stopThread()
-          {
-             this.threading = false;
-             return true;
-          }
- 
-          /**
-           * return time elapsed 
-           */
-          public int secElapsed()
-          {
-             return this.sec;
-          }
- 
-          /**
-           * returns string in mm:ss format 
-           */
-          public String timeFormat(int totalSeconds)
-          {
-             int minutes = totalSeconds / 60;
-             int sec = totalSeconds - (minutes * 60);
-             String formattedTime = String.format("%02d", minutes) + ":"
-                            + String.format("%02d", sec);
-             return formattedTime;
-          }
- 
-          /**
-           * private helping method pauses thread to allow multi-threading 
-           */
-          private void doNothing(int milliseconds)
-          {
-             try
-             {
-                Thread.sleep(milliseconds);
-             } catch (InterruptedException e)
-             {
-                System.out.println("Unexpected interrupt");
-                System.exit(0);
-             }
-          }
+          clock.toggle();
        }
     }
  
@@ -1,4 +1,6 @@
+import java.util.Arrays;
 import java.util.Random;
+import java.util.random.RandomGenerator;
 import javax.swing.*;
 
 /****************************************************************
@@ -23,11 +25,14 @@ public class GameModel
    private Hand[] hand; // one Hand for each player
    private Card[] unusedCardsPerPack; // an array holding the cards not used
 
-   // Variables to keep track of winnings
-   private int computerWinningsCounter = 0;
-   private int humanWinningsCounter = 0;
-   private Card[] compWinnings;
-   private Card[] humanWinnings;
+   // Variables to keep track of winnings, one entry per player
+   private int[] winningsCounter;
+   private Card[][] winnings;
+
+   // cards of each rank in the game and played so far, a player has not
+   // seen the ones that are neither played nor in its hand
+   private int[] rankTotals = new int[Card.NUM_RANKS];
+   private int[] rankPlayed = new int[Card.NUM_RANKS];
    
 
    /** 
@@ -63,7 +68,10 @@ public class GameModel
       this.hand = new Hand[numPlayers];
       for (k = 0; k < numPlayers; k++)
          this.hand[k] = new Hand();
+      this.winningsCounter = new int[numPlayers];
+      this.winnings = new Card[numPlayers][];
       deck = new Deck(numPacks);
+      deck.setLazyShuffle(true); // only shuffle the cards that get dealt
 
       // assign to members
       this.numPacks = numPacks;
@@ -77,8 +85,9 @@ public class GameModel
       // prepare deck and shuffle
       initGame();
 
-      compWinnings = new Card[getNumCardsRemainingInDeck() * numPlayers];
-      humanWinnings = new Card[getNumCardsRemainingInDeck() * numPlayers];
+      // a player can win at most every card of the deck
+      for (k = 0; k < numPlayers; k++)
+         winnings[k] = new Card[getNumCardsRemainingInDeck()];
    }
    
    // constructor overload/default for game like bridge
@@ -88,23 +97,27 @@ public class GameModel
    }
 
    /** 
-    * Loads all the card icons to be used later and deals the deck
+    * Starts loading the card icons in the background and deals the deck
     */
    public void startNewGame()
    {
-      GUICard.loadCardIcons();
+      GUICard.preloadCardIcons();
 
       deal();
    }
    
-   // create a new deck and the correct number of hands. Shuffle the deck.
+   // create a new deck and the correct number of hands, reset the scores.
+   // Shuffle the deck.
    public void initGame() 
    {
       int k, j;
 
-      // clear the hands
+      // clear the hands and the winnings
       for (k = 0; k < numPlayers; k++)
+      {
          hand[k].resetHand();
+         winningsCounter[k] = 0;
+      }
 
       // restock the deck
       deck.init(numPacks);
@@ -116,12 +129,25 @@ public class GameModel
       // add jokers
       for (k = 0; k < numPacks; k++)
          for (j = 0; j < numJokersPerPack; j++)
-            deck.addCard(new Card('X', Card.Suit.values()[j]));
+            deck.addCard(Card.valueOf('X', Card.SUITS[j]));
+
+      // count the ranks once, plays keep the counts up
+      Arrays.fill(rankTotals, 0);
+      Arrays.fill(rankPlayed, 0);
+      for (k = 0; k < Card.NUM_CARD_CODES; k++)
+         rankTotals[k / Card.NUM_SUITS] += deck.getCardCount(Card.fromInt(k));
 
       // shuffle the cards
       deck.shuffle();
    }
 
+   // sets the random number generator of the deck, so that games can be
+   // replayed from a seed
+   public void setRandom(RandomGenerator random)
+   {
+      deck.setRandom(random);
+   }
+
    // deal the specified number of cards to each hand
    public boolean deal() 
    {
@@ -178,15 +204,119 @@ public class GameModel
    public Card playCard(int playerIndex, int cardIndex) 
    {
       // returns bad card if either argument is bad
-      if (playerIndex < 0 || playerIndex > numPlayers - 1 || cardIndex < 0 || cardIndex > numCardsPerHand - 1) 
+      if (playerIndex < 0 || playerIndex > numPlayers - 1) 
+      {
+         // Returns a card that does not work
+         return Card.errorCard();
+      }
+
+      // return the card played, a bad card if cardIndex is bad
+      return countPlayed(hand[playerIndex].playCard(cardIndex));
+
+   }
+
+   /**
+    * Plays a card of the rank for the specified player. The last card of the
+    * hand takes its place, so the hand's rank index stays valid and no card
+    * is searched for.
+    * @param playerIndex indicates which player
+    * @param rank the value as returned by Card.valueAsInt
+    * @return the card played, a bad card if the player has none of the rank
+    */
+   public Card playCardOfRank(int playerIndex, int rank)
+   {
+      if (playerIndex < 0 || playerIndex > numPlayers - 1) 
+         return Card.errorCard();
+
+      return countPlayed(hand[playerIndex].playCardOfRank(rank));
+   }
+
+   // every card played is seen by all players
+   private Card countPlayed(Card card)
+   {
+      if (!card.getErrorFlag())
+         rankPlayed[Card.valueAsInt(card)]++;
+      return card;
+   }
+
+   /**
+    * Counts the cards of each rank the player has not seen: they are still
+    * in the deck or in another hand
+    * @param playerIndex indicates which player
+    * @param counts gets the count of each rank, needs Card.NUM_RANKS
+    */
+   public void getUnseenRankCounts(int playerIndex, int[] counts)
+   {
+      Hand own = getHand(playerIndex);
+      for (int rank = 0; rank < Card.NUM_RANKS; rank++)
+         counts[rank] = rankTotals[rank] - rankPlayed[rank]
+            - own.getRankCount(rank);
+   }
+
+   /**
+    * The computer's choice in Low-Card. The others win with a low card, so
+    * it guesses the lowest rank played by them as the lowest of their
+    * cards: the expected minimum of that many cards drawn from the ones it
+    * has not seen. Then it plays its highest card below that guess, keeping its
+    * lower cards for later rounds. With no card below the guess the round
+    * is likely lost, so it gives away its highest card. Looks at the ranks,
+    * never at the cards, so it takes the same time for any hand.
+    * @param hand the cards of the player as a mask, see Hand.getCardMask
+    * @param unseen the count of each rank the player has not seen
+    * @param otherCards the number of cards the other players hold
+    * @return the rank to play, -1 if the hand is empty
+    */
+   public static int chooseLowCardRank(long hand, int[] unseen,
+      int otherCards)
+   {
+      int cards = 0;
+      for (int rank = 0; rank < Card.NUM_RANKS; rank++)
+         cards += unseen[rank];
+      if (cards == 0 || otherCards <= 0)
+         return Card.lowestRank(hand); // nothing left to guess from
+
+      // E[min] is the sum over the ranks of P(min > rank), each card is
+      // taken as drawn on its own, which is close enough for a guess
+      double expectedLowest = 0;
+      int atOrBelow = 0;
+      for (int rank = 0; rank < Card.NUM_RANKS && atOrBelow < cards; rank++)
       {
-         // Creates a card that does not work
-         return new Card('M', Card.Suit.SPADES);
+         atOrBelow += unseen[rank];
+         expectedLowest += power(1 - (double) atOrBelow / cards, otherCards);
       }
 
-      // return the card played
-      return hand[playerIndex].playCard(cardIndex);
+      long below = hand & Card.belowRankMask((int) Math.ceil(expectedLowest));
+      if (below != 0)
+         return Card.highestRank(below);
+      return Card.highestRank(hand);
+   }
+
+   // x to the n by squaring, much faster than Math.pow for small n
+   private static double power(double x, int n)
+   {
+      double result = 1;
+      for (; n > 0; n >>= 1, x *= x)
+         if ((n & 1) != 0)
+            result *= x;
+      return result;
+   }
 
+   /**
+    * The computer's choice in Low-Card for a player of this game, see
+    * chooseLowCardRank
+    * @param playerIndex indicates which player
+    * @param unseen room for Card.NUM_RANKS counts
+    * @return the rank to play, -1 if the hand is empty
+    */
+   public int chooseLowCardRank(int playerIndex, int[] unseen)
+   {
+      getUnseenRankCounts(playerIndex, unseen);
+      int otherCards = 0;
+      for (int k = 0; k < numPlayers; k++)
+         if (k != playerIndex)
+            otherCards += getNumCardsInHand(k);
+      return chooseLowCardRank(getHand(playerIndex).getCardMask(), unseen,
+         otherCards);
    }
 
    // give a card from the deck to the specified player
@@ -213,29 +343,51 @@ public class GameModel
     */
    public int determineRoundWinner(Card compCard, Card humanCard)
    {
+      return determineRoundWinner(new Card[] { compCard, humanCard });
+   }
+
+   /**
+    * Determines the winner of a round of any number of players: the lowest
+    * card takes every card played, nobody does if the lowest is tied. A
+    * missing or invalid card is skipped, it can not win.
+    * @param cardsInPlay the card played by each player, by player index
+    * @return the index of the player who won, -1 if its a tie or no card is
+    *         valid
+    */
+   public int determineRoundWinner(Card[] cardsInPlay)
+   {
+      int winner = -1;
+      int lowest = Integer.MAX_VALUE;
+      boolean tie = false;
 
-      // Check who won this round 
-      if(Card.valueAsInt(compCard) < Card.valueAsInt(humanCard))
+      // Find the lowest card of this round
+      for (int k = 0; k < cardsInPlay.length; k++)
       {
-         // Computer won this round
-         compWinnings[computerWinningsCounter] = compCard;
-         compWinnings[computerWinningsCounter + 1] = humanCard;
-         computerWinningsCounter += 2;
-         return 0;
+         Card card = cardsInPlay[k];
+         if (card == null || card.getErrorFlag())
+            continue;
+         int value = Card.valueAsInt(card);
+         if (value < lowest)
+         {
+            winner = k;
+            lowest = value;
+            tie = false;
+         }
+         else if (value == lowest)
+            tie = true;
       }
-      else if(Card.valueAsInt(compCard) > Card.valueAsInt(humanCard))
-      {
-         // Human won this round
-         humanWinnings[humanWinningsCounter] = compCard;
-         humanWinnings[humanWinningsCounter + 1] = humanCard;
-         humanWinningsCounter += 2;
-         return 1;
-      }   
-      else
+
+      if (winner < 0 || tie)
       {
-         // There was a tie
+         // There was a tie, or no valid card
          return -1;
       }
+
+      // The winner takes all the valid cards played
+      for (Card card : cardsInPlay)
+         if (card != null && !card.getErrorFlag())
+            winnings[winner][winningsCounter[winner]++] = card;
+      return winner;
    }
 
    /**
@@ -259,15 +411,10 @@ public class GameModel
     */
    public int getPlayerScore(int playerIndex)
    {
-      // Check who won 
-      if(playerIndex == 0)
-         return computerWinningsCounter; 
-
-      else if(playerIndex == 1)
-         return humanWinningsCounter;
-
-      else
+      if (playerIndex < 0 || playerIndex >= numPlayers)
          return -1; // If input is incorrect
+
+      return winningsCounter[playerIndex];
    }
    
    public void sortHands() {
@@ -283,6 +430,12 @@ public class GameModel
       getHand(playerIndex).sort();
    }
 
+   // Keeps the specified player's hand sorted from now on
+   public void keepHandSorted(int playerIndex)
+   {
+      getHand(playerIndex).setKeepSorted(true);
+   }
+
    // Retrieves the Icon for the specified Card
    public Icon getCardIcon(Card card)
    {
@@ -332,706 +485,4 @@ public class GameModel
 
 /*-----------------------------------------------------
  * End Of GameModel class
- *-----------------------------------------------/
-
-
- /****************************************************************
- * GUI Card
- * 
- * description:  creates a new GUICard class 
- * usage:        manages the reading and building of the card
- *               image Icons.
- *****************************************************************/
-class GUICard 
-{
-   // members to facilitate GUICard class
-   private static Icon[][] iconCards = new ImageIcon[14][4];
-   private static Icon iconBack;
-   static boolean iconsLoaded = false;
-
-   // identifies card icon filenames
-   private static char[] cardSuits = { 'C', 'D', 'H', 'S' };
-
-   /**
-    * generates the image icon array from files
-    */
-   static void loadCardIcons() 
-   {
-      if (iconsLoaded)
-         return;
-
-      // generates file names of icon and adds to Icon's array
-      String filename = "";
-      for (int i = 0; i < Card.valuRanks.length; ++i) 
-      {
-         for (int j = 0; j < cardSuits.length; ++j) 
-         {
-            filename = "src/images/" + Card.valuRanks[i] + cardSuits[j] + ".gif";
-            iconCards[i][j] = new ImageIcon(filename);
-         }
-      }
-      // fills the back of card
-      iconBack = new ImageIcon("src/images/BK.gif");
-      iconsLoaded = true;
-   }
-
-   // returns back icon for back of card
-   public static Icon getBackCardIcon() 
-   {
-      loadCardIcons();
-      return iconBack;
-   }
-
-   // returns specific icon
-   public static Icon getIcon(Card card) 
-   {
-      loadCardIcons();
-      return iconCards[valueAsInt(card)][suitAsInt(card)];
-   }
-
-   // index of card value returned
-   private static int valueAsInt(Card card) 
-   {
-      int i = 0;
-      while (card.getValue() != Card.valuRanks[i])
-         ++i;
-
-      return i;
-   }
-
-   // returns index of card suit
-   private static int suitAsInt(Card card) 
-   {
-      int i;
-      Card.Suit suit = card.getSuit();
-      Card.Suit[] allSuits = Card.Suit.values();
-
-      for (i = 0; i < allSuits.length; ++i)
-         if (suit == allSuits[i])
-            return i;
-
-      // invalid suit
-      return -1;
-   }
-
-}
-
-/*-----------------------------------------------------
- * End Of GUI Card
- *-----------------------------------------------/
-
-
-
-/****************************************************************
- * Card
- * imported Card class 
- ***************************************************************/
-class Card 
-{
-   public enum Suit 
-   {
-      CLUBS, DIAMONDS, HEARTS, SPADES
-   };
-
-   // card values
-   private char value;
-   private Suit suit;
-   public static char[] valuRanks = { 'A', '2', '3', '4', '5', '6', '7', '8', '9', 'T', 'J', 'Q', 'K', 'X' };
-
-   // Checks for illegal card data
-   private boolean errorFlag;
-
-   /**
-    * Constructor
-    * 
-    * @param value
-    * @param suit
-    */
-   public Card(char value, Suit suit) 
-   {
-      set(value, suit);
-   }
-
-   /**
-    * Overloaded constructor
-    */
-   public Card() 
-   {
-      this('A', Suit.SPADES);
-   }
-
-   /**
-    * Copy Constructor
-    * 
-    * @param otherCard
-    */
-   public Card(Card otherCard) 
-   {
-      if (otherCard == null) 
-      {
-         System.out.println("Fatal Error!");
-         System.exit(0);
-      }
-      set(otherCard.value, otherCard.suit);
-   }
-
-   // Accessors
-   public Suit getSuit() 
-   {
-      return suit;
-   }
-
-   public char getValue() 
-   {
-      return value;
-   }
-
-   public boolean getErrorFlag() 
-   {
-      return errorFlag;
-   }
-
-   // Mutators
-   public boolean set(char value, Suit suit) 
-   {
-      if (isValid(value, suit)) 
-      {
-         this.value = value;
-         this.suit = suit;
-         errorFlag = false;
-         return true;
-      }
-      errorFlag = true;
-      return false;
-   }
-
-   // Valid card data returned
-   public String toString() 
-   {
-      if (errorFlag)
-         return "[Card Not Valid]";
-      return value + " of " + suit;
-
-   }
-
-   // Returns true if all field members are identical, false otherwise
-   public boolean equals(Card card) 
-   {
-      if (card == null)
-         return false;
-
-      // comparing member values
-      if (this.value == card.value) 
-      {
-         if (this.suit == card.suit)
-            return true;
-      }
-      return false;
-   }
-
-   // Determine validity for the value
-   private boolean isValid(char value, Suit suit) 
-   {
-      // checks if value is in the field of valid values
-      for (int i = 0; i < valuRanks.length; ++i) 
-      {
-         if (value == valuRanks[i])
-            return true;
-      }
-      // invalid value
-      return false;
-   }
-
-   public static void arraySort(Card[] cArray, int arraySize) 
-   {
-      for (int i = 0; i < arraySize - 1; i++) 
-      {
-         for (int j = 0; j < arraySize - i - 1; j++) 
-         {
-            if (cardAsInt(cArray[j]) > cardAsInt(cArray[j + 1])) 
-            {
-               Card temp = cArray[j];
-               cArray[j] = cArray[j + 1];
-               cArray[j + 1] = temp;
-            }
-         }
-      }
-   }
-
-   /**
-    * It returns an integer according to the value
-    * 
-    * @param card
-    * @return -1 if the value is not valid
-    */
-   public static int valueAsInt(Card card) 
-   {
-      for (int i = 0; i < valuRanks.length; i++) 
-      {
-         if (valuRanks[i] == card.getValue()) 
-         {
-            return i;
-         }
-      }
-      // Not matching any values in the ranks
-      return -1;
-   }
-
-   /**
-    * It returns the suit position as an integer
-    * 
-    * @param card
-    * @return an integer
-    */
-   public static int suitAsInt(Card card) 
-   {
-      return card.getSuit().ordinal();
-   }
-
-   /**
-    * It returns a specific integer for a card according to the value and the suit
-    * 
-    * @param card
-    * @return an integer for the card
-    */
-   public static int cardAsInt(Card card) 
-   {
-      int total = Card.valueAsInt(card) * 4 + Card.suitAsInt(card);
-      return total;
-   }
-}
-
-/*-----------------------------------------------------
- * End Of Card
- *----------------------------------------------/
-
-
- /****************************************************************
- * Hand 
- * imported Hand class 
- ***************************************************************/
-class Hand 
-{
-   // a hand can only have 52 cards maximum
-   public static final int MAX_CARDS = 52;
-
-   private Card[] myCards;
-   private int numCards;
-
-   // Constructor
-   public Hand() 
-   {
-      myCards = new Card[MAX_CARDS];
-      numCards = 0;
-   }
-
-   /**
-    * resets hand
-    */
-   public void resetHand() 
-   {
-      numCards = 0;
-   }
-
-   /**
-    * Adds a card to the next available position
-    * 
-    * @param card
-    * @return boolean
-    */
-   public boolean takeCard(Card card) 
-   {
-      if (numCards < MAX_CARDS && card != null && !card.getErrorFlag()) 
-      {
-         Card tempCard = new Card(card);
-         myCards[numCards] = tempCard;
-         numCards++;
-         return true;
-      }
-      return false;
-   }
-
-   // stringifies the hand
-   public String toString() 
-   {
-      String myHand = "";
-      if (numCards > 0) 
-      {
-
-         myHand += myCards[0];
-         for (int i = 1; i < numCards; i++) 
-         {
-            myHand += " , " + myCards[i];
-         }
-
-      }
-      return "Hand = " + "(" + myHand + ")";
-   }
-
-   // Accessor
-   public int getNumCards() 
-   {
-      return numCards;
-   }
-
-   // Accessor
-   public Card inspectCard(int k) 
-   {
-
-      if (k >= 0 && k < numCards) // assume valid k starts from 0
-      {
-         Card aCard = new Card(myCards[k]); // prevent privacy leaks
-         return aCard;
-      }
-
-      // return a dummy invalid card
-      Card badCard = new Card(' ', Card.Suit.SPADES);
-      return badCard;
-
-   }
-
-   /**
-    * Sort the cards in the hand in ascending order
-    */
-   public void sort() 
-   {
-      Card.arraySort(myCards, numCards);
-   }
-
-   /**
-    * Return a card on the top of the hand
-    * 
-    * @return a good card if there is any
-    */
-   public Card playCard() 
-   {
-      if (numCards > 0) 
-      {
-         numCards--;
-         return myCards[numCards];
-      }
-
-      // No more cards, return a card that does not work
-      return new Card('M', Card.Suit.SPADES);
-
-   }
-
-   /**
-    * Remove a card from the given location and slide down cards behind down one
-    * spot
-    * 
-    * @param cardIndex the location where the card is removed from the hand
-    * @return the card at the given location or a bad card if location is invalid
-    */
-   public Card playCard(int cardIndex) 
-   {
-      if (cardIndex < 0 || cardIndex >= numCards) // out of bound error
-      {
-         // Creates a card that does not work
-         return new Card('M', Card.Suit.SPADES);
-      }
-      // Decreases numCards.
-      Card card = myCards[cardIndex];
-      numCards--;
-
-      // Slide down cards that followed down one spot
-      for (int i = cardIndex; i < numCards; i++) 
-      {
-         myCards[i] = myCards[i + 1];
-      }
-
-      myCards[numCards] = null;
-
-      return card;
-   }
-
-}
-/*-----------------------------------------------------
- * End Of Hand
- *----------------------------------------------/
-
-
- /****************************************************************
- * Deck import
- * imported Deck class
- ***************************************************************/
-
-class Deck 
-{
-   // playing card pack values
-   public static final int MAX_CARDS = 312; // 6 packs x 52 cards
-   public static final int ONE_PACK = 52; // standard 52 cards
-   public static boolean beenHereBefore = false;
-
-   // creates a new object with one pack of cards
-   private static Card[] masterPack = new Card[ONE_PACK];
-
-   private Card[] cards; // cards in the deck
-   private int topCard; // keep track of number of cards in the deck
-   private int numPacks; // keep track of number of packs in the deck
-
-   /**
-    * Constructor that takes in a number of packs as an argument and then creates a
-    * deck of cards with that many packs of cards (56 x numPacks)
-    * 
-    * @param numPacks
-    */
-   public Deck(int numPacks) 
-   {
-      // maximum packs is 6
-      if ((numPacks * ONE_PACK) > MAX_CARDS)
-         numPacks = 6;
-
-      this.numPacks = numPacks;
-
-      allocateMasterPack();
-
-      // create the cards array with (52+4) x numPacks cards
-      // standard is 52 cards but possible add 4 jokers per pack
-      cards = new Card[numPacks * (ONE_PACK + 4)];
-
-      // populate the cards in the deck
-      init(numPacks);
-   }
-
-   /*
-    * Overloaded no argument constructor that creates a pack of cards using just
-    * one deck
-    */
-   public Deck() 
-   {
-      this.numPacks = 1;
-
-      allocateMasterPack();
-
-      // Create the cards array using one pack of cards
-      cards = new Card[ONE_PACK + 4]; // add 4 joker spaces
-
-      // Initialize the last index of the array to be the top card of the deck
-      topCard = ONE_PACK; // no jokers that will be added if needed
-
-      // Loop through the cards array, populating it with Cards
-      for (int i = 0; i < topCard; i++) 
-      {
-         // Create a new Card Object, copying it from the masterPack
-         cards[i] = new Card(masterPack[i]);
-      }
-   }
-
-   /**
-    * Method to re-populate cards[] with 52 x numPacks cards.
-    * 
-    * @param numPacks
-    */
-   public void init(int numPacks) 
-   {
-
-      // Initialize the last index of the array to be the top card of the deck
-      topCard = numPacks * ONE_PACK; // no jokers that can be added when needed
-
-      this.numPacks = numPacks;
-
-      // Populate the card array with Card objects, copying values from
-      // masterPack
-      for (int masterCounter = 0, i = 0; i < topCard; i++, masterCounter++) 
-      {
-         // Create a new Card Object, copying it from the masterPack
-         cards[i] = new Card(masterPack[masterCounter]);
-
-         // If the cards array is more than one pack, reset the index of
-         // masterPack
-         // in order to loop through it again
-         if (masterCounter == ONE_PACK - 1)
-            masterCounter = -1;
-      }
-   }
-
-   /**
-    * Shuffles the deck of Cards
-    */
-   public void shuffle() 
-   {
-      Random shuffle = new Random();
-      Card tempCard;
-      int randCard;
-
-      // loops through the entire deck
-      for (int x = 0; x < topCard; x++) 
-      {
-         // Picks a random card from the deck
-         randCard = shuffle.nextInt(ONE_PACK);
-         // assigns the random card to a placeholder
-         tempCard = cards[randCard];
-         // assigns the random card to the next card in the deck
-         cards[randCard] = cards[x];
-         // assigns the next card in the deck to the card in
-         // the place holder
-         cards[x] = tempCard;
-      }
-   }
-
-   /**
-    * Deals a card by taking the top of the deck and makes sure there are still
-    * cards available.
-    * 
-    * @return the top Card from the deck.
-    */
-   public Card dealCard() 
-   {
-      Card dealCard;
-
-      // checks if there are cards in the deck
-      if (topCard > 0) 
-      {
-         // assigns the top card to the dealCard variable
-         dealCard = inspectCard(topCard - 1);
-
-         // removes the topcard from the deck
-         cards[topCard - 1] = null;
-
-         // decreases card count
-         topCard--;
-         return dealCard;
-      }
-      // returns null if no more cards
-      return null;
-   }
-
-   /**
-    * Returns the number of cards in a deck.
-    * 
-    * @return the number of cards in the deck
-    */
-   public int getTopCard() 
-   {
-      return topCard;
-   }
-
-   /**
-    * Accessor for an individual card. Returns a card or returns a card with an
-    * error flag.
-    * 
-    * @return the card at index k
-    * @return a card with with an error flag
-    */
-   public Card inspectCard(int k)
-   {
-      Card returnCard;
-
-      // If k is out of bounds, return a card with an error flag
-      if (k < 0 || k >= topCard)
-      {
-         // Create an invalid card with errorFlag = true
-         returnCard = new Card('E', Card.Suit.CLUBS);
-      }
-      else
-      {
-         // Otherwise return the card at k index
-         returnCard = cards[k];
-      }
-      return returnCard;
-   }
-
-   /**
-    * This method creates new cards and fills the masterPack.
-    */
-   private static void allocateMasterPack()
-   {
-      // Check if this method has already been run. Return if it has.
-      if (beenHereBefore)
-         return;
-
-      char[] value =
-      { 'A', '2', '3', '4', '5', '6', '7', '8', '9', 'T', 'J', 'Q', 'K' };
-
-      Card.Suit[] suits =
-      { Card.Suit.CLUBS, Card.Suit.DIAMONDS, Card.Suit.HEARTS,
-         Card.Suit.SPADES };
-
-      int curIndex = 0;
-
-      // Loop through the value array
-      for (int x = 0; x < value.length; x++)
-      {
-         // Loop through the suits array
-         for (int y = 0; y < suits.length; y++)
-         {
-            // Create a new Card object with the correct suit and value
-            masterPack[curIndex] = new Card(value[x], suits[y]);
-            curIndex++;
-         }
-      }
-
-      beenHereBefore = true;
-   }
-
-   /**
-    * Adds the card to the top of the deck if there aren't too many instances
-    * 
-    * @param card the card to be added
-    * @return false if the card is already there or no rooms, otherwise return
-    *         true
-    */
-   public boolean addCard(Card card)
-   {
-      if (cards.length == topCard)
-      {
-         return false; // no room for the card
-      }
-
-      int ctr = 0; // counter for the instances of the card
-      for (int i = 0; i < topCard; i++)
-      {
-         if (cards[i].equals(card))
-         {
-            ctr++;
-         }
-      }
-
-      if(ctr < numPacks)
-      {
-         // number of instances not exceeding the numPacks
-         cards[topCard] = card; // add the card to the deck
-         topCard++;
-         return true;
-      }
-      return false;
-   }
-
-   /**
-    * Remove one instance of a specific card from the deck
-    * 
-    * @param card the specific card
-    * @return true if success, otherwise false
-    */
-   public boolean removeCard(Card card)
-   {
-
-      // remove only one instance of the card
-      for (int i = 0; i < topCard; i++)
-      {
-         if (cards[i].equals(card))
-         {
-            cards[i] = cards[topCard - 1];
-            cards[topCard - 1] = null;
-            topCard--;
-            return true;
-         }
-      }
-      return false;
-   }
-
-   public void sort()
-   {
-      Card.arraySort(cards, topCard);
-   }
-
-   public int getNumCards()
-   {
-      return topCard;
-   }
-}
-
-/*-----------------------------------------------------
- * End Of Deck
  *----------------------------------------------*/
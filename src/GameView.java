@@ -21,9 +21,10 @@ public class GameView
    private static JPanel pnlHumanHand;
    private static JPanel pnlPlayArea;
    private static JPanel cardsPanel = new JPanel(new GridLayout());
-   private static JLabel[] computerLabels;
    private static JLabel[] playedCardLabels; 
-   private static JButton[] cardButtons;
+   // the hands scroll sideways and only paint the cards on screen
+   private static HandStrip computerStrip;
+   private static HandStrip humanStrip;
    private static JFrame myCardTable;
 
    private static Color backgroundColor = new Color(53,101,77);
@@ -46,9 +47,7 @@ public class GameView
     */
    public void createTable()
    {
-      computerLabels = new JLabel[numCardsPerHand];
       playedCardLabels  = new JLabel[numPlayers]; 
-      cardButtons = new JButton[numCardsPerHand];
 
       // Establish main frame in which program will run
       myCardTable = new JFrame("Card Table");
@@ -66,13 +65,19 @@ public class GameView
       
       // Set up the play area layout
       pnlPlayArea.setLayout(new BorderLayout());
-      pnlHumanHand.setLayout(new FlowLayout(FlowLayout.CENTER));
-      pnlComputerHand.setLayout(new FlowLayout(FlowLayout.CENTER));
+      pnlHumanHand.setLayout(new BorderLayout());
+      pnlComputerHand.setLayout(new BorderLayout());
       //set background color
       pnlPlayArea.setBackground(backgroundColor);
       pnlHumanHand.setBackground(backgroundColor);
       pnlComputerHand.setBackground(backgroundColor);
 
+      // the hands, the human's also answers the keys
+      computerStrip = new HandStrip(backgroundColor, null, null, null);
+      humanStrip = new HandStrip(backgroundColor, null, null, Color.white);
+      pnlComputerHand.add(computerStrip.createScrollPane());
+      pnlHumanHand.add(humanStrip.createScrollPane());
+
       // place panels on grid
       myCardTable.add(pnlPlayArea, BorderLayout.CENTER);
       myCardTable.add(pnlComputerHand, BorderLayout.NORTH);
@@ -97,54 +102,25 @@ public class GameView
    }
 
    /**
-    * Creates and displays the card labels on the computer panel
+    * Shows the computer's cards face down on the computer panel
     * @param icon
     * @param numCompCards
     */
    public void createCompLabels(Icon icon, int numCompCards)
    {
-      // Clear any old data 
-      pnlComputerHand.removeAll();
-      pnlComputerHand.setVisible(false);
-
-      // Create the labels
-      for (int card = 0; card < numCompCards; card++)
-      {
-         // Create back labels for all the computer's cards 
-         computerLabels[card] = new JLabel(icon);
-         
-         // add computer's card labels to the table
-         pnlComputerHand.add(computerLabels[card]);
-      }
-     myCardTable.setVisible(true);
-     pnlComputerHand.setVisible(true);
+      computerStrip.setBackCards(icon, numCompCards);
    }
 
    /**
-    * Creates and displays the card buttons on the human panel
+    * Shows the human's cards on the human panel, a click on one fires its
+    * index
     * @param cardIcons
     * @param buttonListener
     */
    public void createHumanLabels(Icon[] cardIcons, ActionListener buttonListener)
    {
-      // Clear any old data 
-      pnlHumanHand.removeAll();
-      pnlHumanHand.setVisible(false);
-      
-      // Create the buttons for each card
-      for (int index = 0; index < cardIcons.length; index++)
-      {
-         // Create buttons for each of the human cards
-         cardButtons[index] = new JButton(cardIcons[index]);
-         cardButtons[index].setPreferredSize(new Dimension(73,97));
-         cardButtons[index].setActionCommand(Integer.toString(index));
-         cardButtons[index].addActionListener(buttonListener);
-         
-         // add human's card buttons to the table
-         pnlHumanHand.add(cardButtons[index]);
-      }
-     myCardTable.setVisible(true);
-     pnlHumanHand.setVisible(true);
+      humanStrip.setActionListener(buttonListener);
+      humanStrip.setCards(cardIcons);
    }
    
    /**
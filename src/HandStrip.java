@@ -0,0 +1,347 @@
+import java.awt.*;
+import java.awt.event.*;
+import javax.swing.*;
+import java.util.Arrays;
+
+/****************************************************************
+ * HandStrip
+ *
+ * Description: One hand of cards in a row that scrolls sideways. There is
+ *              no component per card, the strip only paints the cards in
+ *              the part of the row that is on screen, so a hand of
+ *              hundreds of cards costs no more to show than a hand of
+ *              seven.
+ * Usage:       new HandStrip(...).createScrollPane() is put on the table.
+ *              Clicking a card, or Enter or Space on the card picked with
+ *              the arrow keys, Home and End, fires the card's index as the
+ *              action command. The mouse wheel scrolls the row.
+ *****************************************************************/
+
+@SuppressWarnings("serial")
+class HandStrip extends JComponent implements Scrollable
+{
+   static final int CARD_WIDTH = 73;
+   static final int CARD_HEIGHT = 97;
+   private static final int GAP = 5;
+   private static final int PAD = 4; // room for an outline
+   private static final int STEP = CARD_WIDTH + GAP;
+   private static final int ARC = 8;
+   private static final Stroke OUTLINE = new BasicStroke(3);
+
+   // the wanted width of the row before it scrolls, in cards
+   private static final int VISIBLE_CARDS = 10;
+
+   private final Color background;
+   private final Color playableColor; // null for no highlights
+   private final Color selectedColor;
+   private final Color focusColor;
+
+   private ActionListener listener;
+
+   // the faces, or one icon for every card of a hidden hand
+   private Icon[] icons = new Icon[0];
+   private Icon backIcon;
+   private int numCards;
+
+   private boolean[] playable = new boolean[0];
+   private int selectedCard = -1;
+   private int focusedCard = 0;
+
+   /**
+    * @param background    the color of the table behind the cards
+    * @param playableColor the outline of playable cards, null for none
+    * @param selectedColor the outline of the selected card
+    * @param focusColor    the outline of the card picked with the keys
+    */
+   HandStrip(Color background, Color playableColor, Color selectedColor,
+      Color focusColor)
+   {
+      this.background = background;
+      this.playableColor = playableColor;
+      this.selectedColor = selectedColor;
+      this.focusColor = focusColor;
+
+      setOpaque(true);
+      setFocusable(true);
+      addMouseListener(new MouseAdapter()
+      {
+         @Override
+         public void mousePressed(MouseEvent e)
+         {
+            int index = cardAt(e.getX());
+            if (index < 0 || !SwingUtilities.isLeftMouseButton(e))
+               return;
+            setFocusedCard(index);
+            requestFocusInWindow();
+            fire(index);
+         }
+      });
+      addMouseWheelListener(e -> scrollBy(e.getWheelRotation() * STEP));
+      addFocusListener(new FocusAdapter()
+      {
+         @Override
+         public void focusGained(FocusEvent e)
+         {
+            repaintCard(focusedCard);
+         }
+
+         @Override
+         public void focusLost(FocusEvent e)
+         {
+            repaintCard(focusedCard);
+         }
+      });
+      bindKey("LEFT", "previous", () -> setFocusedCard(focusedCard - 1));
+      bindKey("RIGHT", "next", () -> setFocusedCard(focusedCard + 1));
+      bindKey("HOME", "first", () -> setFocusedCard(0));
+      bindKey("END", "last", () -> setFocusedCard(numCards - 1));
+      bindKey("ENTER", "play", () -> fire(focusedCard));
+      bindKey("SPACE", "play", () -> fire(focusedCard));
+   }
+
+   /**
+    * @return the strip in a scroll pane that only scrolls sideways
+    */
+   JScrollPane createScrollPane()
+   {
+      JScrollPane pane = new JScrollPane(this,
+         ScrollPaneConstants.VERTICAL_SCROLLBAR_NEVER,
+         ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
+      pane.setBorder(BorderFactory.createEmptyBorder());
+      pane.getViewport().setBackground(background);
+      pane.setOpaque(false);
+      return pane;
+   }
+
+   void setActionListener(ActionListener listener)
+   {
+      this.listener = listener;
+   }
+
+   /**
+    * Shows the faces, the highlights and the selection are cleared
+    */
+   void setCards(Icon[] cardIcons)
+   {
+      int count = cardIcons.length;
+      if (count > icons.length)
+      {
+         icons = Arrays.copyOf(icons, count);
+         playable = Arrays.copyOf(playable, count);
+      }
+      backIcon = null;
+      int oldSelected = selectedCard;
+      selectedCard = -1;
+
+      if (count != numCards)
+      {
+         System.arraycopy(cardIcons, 0, icons, 0, count);
+         Arrays.fill(playable, false);
+         changeCount(count);
+         return;
+      }
+      // same places, only cards with a new face or outline are repainted
+      for (int index = 0; index < count; index++)
+      {
+         if (icons[index] == cardIcons[index] && !playable[index])
+            continue;
+         icons[index] = cardIcons[index];
+         playable[index] = false;
+         repaintCard(index);
+      }
+      repaintCard(oldSelected);
+   }
+
+   /**
+    * Shows a hidden hand, every card with the same icon
+    */
+   void setBackCards(Icon back, int count)
+   {
+      if (back == backIcon && count == numCards)
+         return;
+      backIcon = back;
+      changeCount(count);
+   }
+
+   void setPlayable(boolean[] cards, int count)
+   {
+      for (int index = 0; index < count && index < numCards; index++)
+      {
+         if (playable[index] == cards[index])
+            continue;
+         playable[index] = cards[index];
+         repaintCard(index);
+      }
+   }
+
+   void setSelectedCard(int cardIndex)
+   {
+      if (cardIndex == selectedCard)
+         return;
+      repaintCard(selectedCard);
+      selectedCard = cardIndex;
+      repaintCard(cardIndex);
+   }
+
+   @Override
+   public Dimension getPreferredSize()
+   {
+      return new Dimension(Math.max(numCards, 1) * STEP - GAP + 2 * PAD,
+         CARD_HEIGHT + 2 * PAD);
+   }
+
+   @Override
+   protected void paintComponent(Graphics graphics)
+   {
+      Graphics2D g = (Graphics2D) graphics;
+      Rectangle clip = g.getClipBounds();
+      if (clip == null)
+         clip = new Rectangle(0, 0, getWidth(), getHeight());
+      g.setColor(background);
+      g.fillRect(clip.x, clip.y, clip.width, clip.height);
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+         RenderingHints.VALUE_ANTIALIAS_ON);
+      g.setStroke(OUTLINE);
+
+      // only the cards under the clip, a scrolled row paints a screenful
+      int left = left();
+      int first = Math.max(0, (clip.x - left - PAD) / STEP);
+      int last = Math.min(numCards - 1, (clip.x + clip.width - left) / STEP);
+      for (int index = first; index <= last; index++)
+      {
+         int x = left + index * STEP;
+         Icon icon = backIcon != null ? backIcon : icons[index];
+         if (icon != null)
+            icon.paintIcon(this, g, x, PAD);
+
+         Color outline = null;
+         if (index == selectedCard)
+            outline = selectedColor;
+         else if (backIcon == null && playable[index])
+            outline = playableColor;
+         else if (index == focusedCard && hasFocus())
+            outline = focusColor;
+         if (outline != null)
+         {
+            g.setColor(outline);
+            g.drawRoundRect(x - 1, PAD - 1, CARD_WIDTH + 1, CARD_HEIGHT + 1,
+               ARC, ARC);
+         }
+      }
+   }
+
+   // Scrollable, a unit is a card and a block is the cards that fit
+
+   @Override
+   public Dimension getPreferredScrollableViewportSize()
+   {
+      Dimension size = getPreferredSize();
+      size.width = Math.min(size.width, VISIBLE_CARDS * STEP - GAP
+         + 2 * PAD);
+      return size;
+   }
+
+   @Override
+   public int getScrollableUnitIncrement(Rectangle visible, int orientation,
+      int direction)
+   {
+      return STEP;
+   }
+
+   @Override
+   public int getScrollableBlockIncrement(Rectangle visible,
+      int orientation, int direction)
+   {
+      return Math.max(STEP, visible.width / STEP * STEP);
+   }
+
+   @Override
+   public boolean getScrollableTracksViewportWidth()
+   {
+      // a hand that fits is centered in the whole width
+      Container parent = getParent();
+      return parent instanceof JViewport
+         && parent.getWidth() >= getPreferredSize().width;
+   }
+
+   @Override
+   public boolean getScrollableTracksViewportHeight()
+   {
+      return true;
+   }
+
+   private void changeCount(int count)
+   {
+      numCards = count;
+      focusedCard = Math.max(0, Math.min(focusedCard, count - 1));
+      revalidate();
+      repaint();
+   }
+
+   private void setFocusedCard(int index)
+   {
+      if (numCards == 0)
+         return;
+      index = Math.max(0, Math.min(index, numCards - 1));
+      repaintCard(focusedCard);
+      focusedCard = index;
+      repaintCard(index);
+      scrollRectToVisible(cardBounds(index));
+   }
+
+   private void fire(int index)
+   {
+      if (listener == null || index < 0 || index >= numCards)
+         return;
+      listener.actionPerformed(new ActionEvent(this,
+         ActionEvent.ACTION_PERFORMED, Integer.toString(index)));
+   }
+
+   private void scrollBy(int dx)
+   {
+      Rectangle visible = getVisibleRect();
+      visible.x += dx;
+      scrollRectToVisible(visible);
+   }
+
+   // the card under x, -1 for the gaps and the ends
+   private int cardAt(int x)
+   {
+      int offset = x - left();
+      if (offset < 0)
+         return -1;
+      int index = offset / STEP;
+      return index < numCards && offset % STEP < CARD_WIDTH ? index : -1;
+   }
+
+   // the left edge of the first card, a narrow hand is centered
+   private int left()
+   {
+      return PAD + Math.max(0, (getWidth() - getPreferredSize().width) / 2);
+   }
+
+   private Rectangle cardBounds(int index)
+   {
+      return new Rectangle(left() + index * STEP - PAD, 0, CARD_WIDTH
+         + 2 * PAD, CARD_HEIGHT + 2 * PAD);
+   }
+
+   private void repaintCard(int index)
+   {
+      if (index >= 0 && index < numCards)
+         repaint(cardBounds(index));
+   }
+
+   private void bindKey(String key, String name, Runnable action)
+   {
+      getInputMap(WHEN_FOCUSED).put(KeyStroke.getKeyStroke(key), name);
+      getActionMap().put(name, new AbstractAction()
+      {
+         @Override
+         public void actionPerformed(ActionEvent e)
+         {
+            action.run();
+         }
+      });
+   }
+}
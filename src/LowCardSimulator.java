@@ -0,0 +1,278 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/****************************************************************
+ * LowCardSimulator
+ *
+ * Description: Plays many games of Low Card without the GUI and prints win
+ *              and tie statistics while it runs. Seat 0 plays like the
+ *              computer (GameModel.chooseLowCardRank), the other seats play
+ *              a random card, or always their lowest card.
+ * Usage:       java LowCardSimulator [games] [packs] [jokers] [players]
+ *                 [cards per hand] [random|lowest] [threads] [seed]
+ *              Games are split over a ForkJoinPool, each task plays its
+ *              share with its own GameModel. The same seed gives the same
+ *              results for any number of threads.
+ *****************************************************************/
+
+public class LowCardSimulator
+{
+   private static final int MIN_GAMES_PER_TASK = 512;
+   private static final int NUM_REPORTS = 10; // lines printed while running
+
+   public static void main(String[] args)
+   {
+      long games = 1_000_000;
+      int packs = 1;
+      int jokers = 0;
+      int players = 2;
+      int cardsPerHand = 26;
+      boolean othersLowest = false;
+      int threads = Runtime.getRuntime().availableProcessors();
+      long seed = 42;
+
+      try
+      {
+         if (args.length > 0)
+            games = Long.parseLong(args[0]);
+         if (args.length > 1)
+            packs = Integer.parseInt(args[1]);
+         if (args.length > 2)
+            jokers = Integer.parseInt(args[2]);
+         if (args.length > 3)
+            players = Integer.parseInt(args[3]);
+         if (args.length > 4)
+            cardsPerHand = Integer.parseInt(args[4]);
+         if (args.length > 5)
+            othersLowest = args[5].equals("lowest");
+         if (args.length > 6)
+            threads = Integer.parseInt(args[6]);
+         if (args.length > 7)
+            seed = Long.parseLong(args[7]);
+      }
+      catch (NumberFormatException e)
+      {
+         System.out.println("usage: java LowCardSimulator [games] [packs]"
+            + " [jokers] [players] [cards per hand] [random|lowest]"
+            + " [threads] [seed]");
+         return;
+      }
+      if (games < 1 || players < 2 || threads < 1)
+      {
+         System.out.println("need at least 1 game, 2 players and 1 thread");
+         return;
+      }
+
+      // the model filters bad values, report what it really plays
+      GameModel check = new GameModel(packs, jokers, 0, null, players,
+         cardsPerHand);
+      System.out.println(String.format(
+         "%d games, %d packs, %d jokers per pack, %d players, %d cards per"
+            + " hand, others play %s, %d threads",
+         games, packs, jokers, check.getNumPlayers(),
+         check.getNumCardsPerHand(), othersLowest ? "lowest" : "random",
+         threads));
+
+      // submit every part at once and print the totals as they come in
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      long start = System.nanoTime();
+      long reports = Math.min(NUM_REPORTS, games);
+      List<ForkJoinTask<Stats>> parts = new ArrayList<>((int) reports);
+      for (int r = 0; r < reports; r++)
+         parts.add(pool.submit(new SimulateTask(games * r / reports, games
+            * (r + 1) / reports, packs, jokers, players, cardsPerHand,
+            othersLowest, seed)));
+
+      Stats total = new Stats(check.getNumPlayers());
+      for (ForkJoinTask<Stats> part : parts)
+      {
+         total.merge(part.join());
+         double seconds = (System.nanoTime() - start) / 1e9;
+         System.out.print(String.format("%8.2f s %10d games ", seconds,
+            total.games));
+         total.print();
+      }
+      pool.shutdown();
+
+      double seconds = (System.nanoTime() - start) / 1e9;
+      System.out.println(String.format("%.0f games/s", total.games
+         / seconds));
+   }
+
+   /**
+    * Plays one game: every round each player plays a card and the lowest
+    * takes them, until the hands are empty
+    *
+    * @param model        a model with a fresh deck
+    * @param othersLowest true if the seats other than 0 play their lowest
+    *                     card, false for a random card
+    * @param random       picks the random cards
+    * @param cardsInPlay  room for one card per player
+    * @param unseen       room for the computer's count of each rank
+    * @param stats        where the result goes
+    */
+   static void playGame(GameModel model, boolean othersLowest,
+      SplittableRandom random, Card[] cardsInPlay, int[] unseen, Stats stats)
+   {
+      int players = model.getNumPlayers();
+      model.deal();
+
+      while (!model.isGameOver(0))
+      {
+         // the computer picks before any card of the round is seen
+         int computerRank = model.chooseLowCardRank(0, unseen);
+         cardsInPlay[0] = model.playCardOfRank(0, computerRank);
+         for (int k = 1; k < players; k++)
+         {
+            if (othersLowest)
+               cardsInPlay[k] = model.playCardOfRank(k, model.getHand(k)
+                  .getLowestRank());
+            else
+               cardsInPlay[k] = model.playCard(k, random.nextInt(model
+                  .getNumCardsInHand(k)));
+         }
+
+         if (model.determineRoundWinner(cardsInPlay) < 0)
+            stats.roundTies++;
+         stats.rounds++;
+      }
+      stats.add(model);
+   }
+
+   /**
+    * Plays the games [from, to) or splits them in two halves
+    */
+   static class SimulateTask extends RecursiveTask<Stats>
+   {
+      private static final long serialVersionUID = 1L;
+      private final long from, to;
+      private final int packs, jokers, players, cardsPerHand;
+      private final boolean othersLowest;
+      private final long seed;
+
+      SimulateTask(long from, long to, int packs, int jokers, int players,
+         int cardsPerHand, boolean othersLowest, long seed)
+      {
+         this.from = from;
+         this.to = to;
+         this.packs = packs;
+         this.jokers = jokers;
+         this.players = players;
+         this.cardsPerHand = cardsPerHand;
+         this.othersLowest = othersLowest;
+         this.seed = seed;
+      }
+
+      @Override
+      protected Stats compute()
+      {
+         long games = to - from;
+         if (games > MIN_GAMES_PER_TASK
+            && games > 1000L * getPool().getParallelism())
+         {
+            long middle = from + games / 2;
+            SimulateTask left = new SimulateTask(from, middle, packs, jokers,
+               players, cardsPerHand, othersLowest, seed);
+            left.fork();
+            Stats right = new SimulateTask(middle, to, packs, jokers, players,
+               cardsPerHand, othersLowest, seed).compute();
+            return left.join().merge(right);
+         }
+
+         GameModel model = new GameModel(packs, jokers, 0, null, players,
+            cardsPerHand);
+         int numPlayers = model.getNumPlayers();
+
+         Card[] cardsInPlay = new Card[numPlayers];
+         int[] unseen = new int[Card.NUM_RANKS];
+         Stats stats = new Stats(numPlayers);
+         for (long game = from; game < to; game++)
+         {
+            // seed every game by its number so results do not depend on
+            // how the games were split
+            SplittableRandom random = new SplittableRandom(seed ^ game
+               * 0x9E3779B97F4A7C15L);
+            model.setRandom(random.split());
+            model.initGame();
+            playGame(model, othersLowest, random, cardsInPlay, unseen, stats);
+         }
+         return stats;
+      }
+   }
+
+   /**
+    * Totals of a batch of games
+    */
+   static class Stats
+   {
+      long games;
+      long ties;
+      long rounds;
+      long roundTies;
+      long[] wins;
+      long[] cardsWon;
+
+      Stats(int players)
+      {
+         wins = new long[players];
+         cardsWon = new long[players];
+      }
+
+      // the player who took the most cards wins the game
+      void add(GameModel model)
+      {
+         int winner = 0;
+         boolean tie = false;
+         cardsWon[0] += model.getPlayerScore(0);
+         for (int k = 1; k < wins.length; k++)
+         {
+            int score = model.getPlayerScore(k);
+            cardsWon[k] += score;
+            if (score > model.getPlayerScore(winner))
+            {
+               winner = k;
+               tie = false;
+            }
+            else if (score == model.getPlayerScore(winner))
+               tie = true;
+         }
+
+         games++;
+         if (tie)
+            ties++;
+         else
+            wins[winner]++;
+      }
+
+      Stats merge(Stats other)
+      {
+         games += other.games;
+         ties += other.ties;
+         rounds += other.rounds;
+         roundTies += other.roundTies;
+         for (int k = 0; k < wins.length; k++)
+         {
+            wins[k] += other.wins[k];
+            cardsWon[k] += other.cardsWon[k];
+         }
+         return this;
+      }
+
+      void print()
+      {
+         System.out.print(String.format("ties %.2f%%, round ties %.2f%%,"
+            + " wins", 100.0 * ties / games, 100.0 * roundTies / rounds));
+         for (int k = 0; k < wins.length && k < 8; k++)
+            System.out.print(String.format(" %d:%.2f%%", k, 100.0 * wins[k]
+               / games));
+         if (wins.length > 8)
+            System.out.print(" ...");
+         System.out.println(String.format(", cards won by seat 0 %.2f",
+            (double) cardsWon[0] / games));
+      }
+   }
+}
@@ -1,3 +1,6 @@
+import java.lang.management.ManagementFactory;
+import javax.swing.SwingUtilities;
+
 /************************************************************************
  * MVC Pattern Design for Build game
  * 
@@ -8,24 +11,39 @@ public class MVCBuild
 {
    public static void main(String[] args)
    {
-      final int NUM_CARDS_PER_HAND = 7;
-      final int NUM_PLAYERS = 2;
-      final int NUM_STACKS = 3;
-      int numPacksPerDeck = 1;
-      int numJokersPerPack = 4;
-      int numUnusedCardsPerPack = 0;
-      Card[] unusedCardsPerPack = null;
+      // the card images are read while the table is built and dealt
+      GUICard.preloadCardIcons();
+
+      // Swing components are built on the event dispatch thread
+      SwingUtilities.invokeLater(() ->
+      {
+         final int NUM_CARDS_PER_HAND = 7;
+         final int NUM_PLAYERS = 2;
+         final int NUM_STACKS = 3;
+         int numPacksPerDeck = 1;
+         int numJokersPerPack = 4;
+         int numUnusedCardsPerPack = 0;
+         Card[] unusedCardsPerPack = null;
+
+         // Create the model
+         BuildModel gameModel = new BuildModel(numPacksPerDeck,
+            numJokersPerPack, numUnusedCardsPerPack, unusedCardsPerPack,
+            NUM_PLAYERS, NUM_CARDS_PER_HAND);
 
-      // Create the model
-      BuildModel gameModel = new BuildModel(numPacksPerDeck, numJokersPerPack,
-         numUnusedCardsPerPack, unusedCardsPerPack, NUM_PLAYERS,
-         NUM_CARDS_PER_HAND);
+         // Create the view
+         // -Dbuild.painted=true paints the table in one component
+         BuildView gameView = new BuildView(NUM_CARDS_PER_HAND, NUM_PLAYERS,
+            NUM_STACKS, Boolean.getBoolean("build.painted"));
 
-      // Create the view
-      BuildView gameView = new BuildView(NUM_CARDS_PER_HAND, NUM_PLAYERS,
-         NUM_STACKS);
+         // Create the controller
+         BuildController gameController = new BuildController(gameModel,
+            gameView);
 
-      // Create the controller
-      BuildController gameController = new BuildController(gameModel, gameView);
+         // -Dstartup.timing=true prints how long the table took to come up
+         if (Boolean.getBoolean("startup.timing"))
+            SwingUtilities.invokeLater(() -> System.out.println(
+               "table shown " + ManagementFactory.getRuntimeMXBean()
+                  .getUptime() + " ms after start"));
+      });
    }
 }
\ No newline at end of file
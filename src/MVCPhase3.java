@@ -1,3 +1,6 @@
+import java.lang.management.ManagementFactory;
+import javax.swing.SwingUtilities;
+
 /************************************************************************
  * MVC Pattern Design for Low-card game
  * 
@@ -12,23 +15,34 @@ public class MVCPhase3
 {
    public static void main(String[] args)
    {
-      final int NUM_CARDS_PER_HAND = 7;
-      final int NUM_PLAYERS = 2;
-      int numPacksPerDeck = 1;
-      int numJokersPerPack = 4;
-      int numUnusedCardsPerPack = 0;
-      Card[] unusedCardsPerPack = null;
-      
-      // Create the model
-      GameModel gameModel = new GameModel(numPacksPerDeck, numJokersPerPack, 
-         numUnusedCardsPerPack, unusedCardsPerPack, NUM_PLAYERS, NUM_CARDS_PER_HAND);
-      
-      // Create the view
-      GameView gameView = new GameView(NUM_CARDS_PER_HAND, NUM_PLAYERS);
+      // the card images are read while the table is built and dealt
+      GUICard.preloadCardIcons();
+
+      // Swing components are built on the event dispatch thread
+      SwingUtilities.invokeLater(() ->
+      {
+         final int NUM_CARDS_PER_HAND = 7;
+         final int NUM_PLAYERS = 2;
+         int numPacksPerDeck = 1;
+         int numJokersPerPack = 4;
+         int numUnusedCardsPerPack = 0;
+         Card[] unusedCardsPerPack = null;
+
+         // Create the model
+         GameModel gameModel = new GameModel(numPacksPerDeck, numJokersPerPack, 
+            numUnusedCardsPerPack, unusedCardsPerPack, NUM_PLAYERS, NUM_CARDS_PER_HAND);
+
+         // Create the view
+         GameView gameView = new GameView(NUM_CARDS_PER_HAND, NUM_PLAYERS);
 
-      // Create the controller 
-      GameController gameController = new GameController(gameModel, gameView);
+         // Create the controller 
+         GameController gameController = new GameController(gameModel, gameView);
 
-      
+         // -Dstartup.timing=true prints how long the table took to come up
+         if (Boolean.getBoolean("startup.timing"))
+            SwingUtilities.invokeLater(() -> System.out.println(
+               "table shown " + ManagementFactory.getRuntimeMXBean()
+                  .getUptime() + " ms after start"));
+      });
    }
 }
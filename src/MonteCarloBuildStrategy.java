@@ -0,0 +1,168 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/****************************************************************
+ * MonteCarloBuildStrategy
+ *
+ * Description: Picks the move with the best expected score margin. Over and
+ *              over until the time budget is used up, it guesses the cards
+ *              it cannot see (the other hands and the order of the deck),
+ *              then plays every legal move on that guess and the rest of
+ *              the game greedy for all seats.
+ * Usage:       new MonteCarloBuildStrategy(budgetMillis), the threads of
+ *              the common pool work on different guesses at the same time
+ *****************************************************************/
+
+public class MonteCarloBuildStrategy implements BuildStrategy
+{
+   private final long budgetNanos;
+   private final int threads;
+   private final ForkJoinPool pool;
+
+   /**
+    * Works on the common pool
+    *
+    * @param budgetMillis the time to think about a move
+    */
+   public MonteCarloBuildStrategy(long budgetMillis)
+   {
+      this(budgetMillis, ForkJoinPool.commonPool());
+   }
+
+   /**
+    * @param budgetMillis the time to think about a move
+    * @param pool         plays out games, one worker per thread of the pool.
+    *                     The caller owns it, the strategy never shuts it
+    *                     down.
+    */
+   public MonteCarloBuildStrategy(long budgetMillis, ForkJoinPool pool)
+   {
+      if (budgetMillis < 0)
+         budgetMillis = 0;
+
+      this.budgetNanos = budgetMillis * 1_000_000L;
+      this.threads = Math.max(1, pool.getParallelism());
+      this.pool = pool;
+   }
+
+   @Override
+   public int chooseMove(BuildEngine engine, int player)
+   {
+      int[] moves = new int[engine.getNumCardsInHand(player)
+         * BuildEngine.NUM_STACKS];
+      int numMoves = distinctMoves(engine, player, moves);
+      if (numMoves == 0)
+         return BuildEngine.PASS;
+      if (numMoves == 1)
+         return moves[0];
+
+      // every thread works on its own copy of the position
+      final BuildEngine root = new BuildEngine(engine);
+      final long deadline = System.nanoTime() + budgetNanos;
+      List<Callable<double[]>> workers = new ArrayList<>();
+      for (int t = 0; t < threads; t++)
+         workers.add(() -> evaluate(root, player, moves, numMoves,
+            deadline));
+
+      // totals[m] is the sum of the margins of move m, the last one counts
+      // the guesses
+      double[] totals = new double[numMoves + 1];
+      try
+      {
+         for (Future<double[]> result : pool.invokeAll(workers))
+         {
+            double[] part = result.get();
+            for (int m = 0; m <= numMoves; m++)
+               totals[m] += part[m];
+         }
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         return new GreedyBuildStrategy().chooseMove(engine, player);
+      }
+      catch (ExecutionException e)
+      {
+         // a bug in a play out should not stop the game
+         return new GreedyBuildStrategy().chooseMove(engine, player);
+      }
+
+      int best = 0;
+      for (int m = 1; m < numMoves; m++)
+         if (totals[m] > totals[best])
+            best = m;
+      return moves[best];
+   }
+
+   /**
+    * Plays out every move on new guesses of the hidden cards until the
+    * deadline. All moves are tried on the same guess, so the luck of the
+    * deal is the same for each of them.
+    *
+    * @return the sum of the margins of each move, then the number of guesses
+    */
+   private static double[] evaluate(BuildEngine root, int player,
+      int[] moves, int numMoves, long deadline)
+   {
+      BuildEngine guess = new BuildEngine(root);
+      BuildEngine game = new BuildEngine(root);
+      double[] totals = new double[numMoves + 1];
+
+      do
+      {
+         guess.copyFrom(root);
+         guess.redealHiddenCards(player);
+         for (int m = 0; m < numMoves; m++)
+         {
+            game.copyFrom(guess);
+            game.applyMove(player, moves[m]);
+            GreedyBuildStrategy.playOut(game);
+            totals[m] += margin(game, player);
+         }
+         totals[numMoves]++;
+      } while (System.nanoTime() < deadline);
+
+      return totals;
+   }
+
+   // how far the player is ahead at the end, the low score wins. Alone at
+   // the table there is no one to be ahead of, a low score is what counts.
+   private static double margin(BuildEngine game, int player)
+   {
+      int numPlayers = game.getNumPlayers();
+      if (numPlayers == 1)
+         return -game.getPlayerScore(player);
+      double others = 0;
+      for (int k = 0; k < numPlayers; k++)
+         if (k != player)
+            others += game.getPlayerScore(k);
+      return others / (numPlayers - 1) - game.getPlayerScore(player);
+   }
+
+   // the legal moves, keeping one of the moves that put the same card on
+   // the same stack
+   static int distinctMoves(BuildEngine engine, int player,
+      int[] moves)
+   {
+      int numMoves = engine.legalMoves(player, moves);
+      Hand hand = engine.getHand(player);
+      long[] seen = new long[BuildEngine.NUM_STACKS];
+      int kept = 0;
+      for (int m = 0; m < numMoves; m++)
+      {
+         int stackIndex = moves[m] % BuildEngine.NUM_STACKS;
+         long bit = Card.cardMask(hand.inspectCard(moves[m]
+            / BuildEngine.NUM_STACKS));
+         if ((seen[stackIndex] & bit) == 0)
+         {
+            seen[stackIndex] |= bit;
+            moves[kept++] = moves[m];
+         }
+      }
+      return kept;
+   }
+}
@@ -0,0 +1,92 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/****************************************************************
+ * PackCardAtlas
+ *
+ * Description: Packs the 56 card gifs and the back into the one atlas
+ *              GUICard loads at start up, in the layout and format
+ *              described in GUICard.readAtlas. The colors of all the
+ *              gifs share one palette of at most 256 entries, index 0 is
+ *              transparent.
+ * Usage:       java PackCardAtlas [images folder]
+ *              Run from the project folder after changing a card image,
+ *              the default folder is src/images.
+ *****************************************************************/
+
+public class PackCardAtlas
+{
+   private static final int MAX_COLORS = 256;
+
+   public static void main(String[] args) throws IOException
+   {
+      File folder = new File(args.length > 0 ? args[0] : "src/images");
+      int cells = GUICard.BACK_CELL + 1;
+      int rows = (cells + GUICard.ATLAS_COLUMNS - 1) / GUICard.ATLAS_COLUMNS;
+      int width = GUICard.ATLAS_COLUMNS * GUICard.CARD_WIDTH;
+      int height = rows * GUICard.CARD_HEIGHT;
+
+      // palette index of every color, in the order they are found
+      Map<Integer, Integer> palette = new LinkedHashMap<>();
+      palette.put(0, 0);
+      byte[] pixels = new byte[width * height];
+
+      for (int cell = 0; cell < cells; cell++)
+      {
+         File file = new File(folder, GUICard.cardFileName(cell)
+            .substring("images/".length()));
+         BufferedImage card = ImageIO.read(file);
+         if (card == null || card.getWidth() != GUICard.CARD_WIDTH
+            || card.getHeight() != GUICard.CARD_HEIGHT)
+            throw new IOException(file + " is not a "
+               + GUICard.CARD_WIDTH + " by " + GUICard.CARD_HEIGHT
+               + " image");
+
+         int left = cell % GUICard.ATLAS_COLUMNS * GUICard.CARD_WIDTH;
+         int top = cell / GUICard.ATLAS_COLUMNS * GUICard.CARD_HEIGHT;
+         for (int y = 0; y < GUICard.CARD_HEIGHT; y++)
+            for (int x = 0; x < GUICard.CARD_WIDTH; x++)
+            {
+               int argb = card.getRGB(x, y);
+               if (argb >>> 24 == 0)
+                  argb = 0; // every transparent pixel is the same
+               Integer index = palette.get(argb);
+               if (index == null)
+               {
+                  index = palette.size();
+                  palette.put(argb, index);
+               }
+               pixels[(top + y) * width + left + x] = (byte) (int) index;
+            }
+      }
+      if (palette.size() > MAX_COLORS)
+         throw new IOException("the cards use " + palette.size()
+            + " colors, more than " + MAX_COLORS);
+
+      File atlas = new File(folder, GUICard.ATLAS
+         .substring("images/".length()));
+      try (DataOutputStream out = new DataOutputStream(
+         new DeflaterOutputStream(new BufferedOutputStream(
+            new FileOutputStream(atlas)), new Deflater(
+               Deflater.BEST_COMPRESSION))))
+      {
+         out.writeInt(width);
+         out.writeInt(height);
+         out.writeInt(palette.size());
+         for (int argb : palette.keySet())
+            out.writeInt(argb);
+         out.write(pixels);
+      }
+      System.out.println(atlas + ": " + cells + " cards, " + palette.size()
+         + " colors, " + atlas.length() + " bytes");
+   }
+}